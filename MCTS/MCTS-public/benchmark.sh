@@ -0,0 +1,8 @@
+#!/bin/sh
+# Compiles the library and the benchmarks and runs them, e.g.
+#   ./benchmark.sh -f UCT -i 10 -rf results.json
+# See ssamot.benchmark.BenchmarkRunner for the options.
+cd "$(dirname "$0")"
+mkdir -p bin/benchmark
+javac -nowarn -d bin/benchmark -cp "lib/*" $(find src -name '*.java') || exit 1
+exec java -cp "bin/benchmark:lib/*" ssamot.benchmark.BenchmarkRunner "$@"
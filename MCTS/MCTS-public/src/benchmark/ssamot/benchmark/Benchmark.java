@@ -0,0 +1,70 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One benchmark configuration. The runner calls {@link #setUp()} before
+ * every measurement iteration and then {@link #run()} until the iteration's
+ * time is up.
+ */
+public abstract class Benchmark {
+
+	private final String name;
+	private final Map<String, String> params = new LinkedHashMap<String, String>();
+
+	protected Benchmark(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Map<String, String> getParams() {
+		return params;
+	}
+
+	protected void param(String key, Object value) {
+		params.put(key, String.valueOf(value));
+	}
+
+	public void setUp() {
+
+	}
+
+	/**
+	 * Does a chunk of work.
+	 * 
+	 * @return the number of operations done
+	 */
+	public abstract long run();
+
+	public String getUnit() {
+		return "ops/s";
+	}
+
+	public String toString() {
+		return name + (params.isEmpty() ? "" : params.toString());
+	}
+
+}
@@ -0,0 +1,253 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import ssamot.mcts.MCTS;
+
+/**
+ * Runs the benchmarks from the command line and prints throughput and
+ * allocation per operation; optionally writes the results as JSON, in the
+ * same layout as JMH's JSON output.
+ * 
+ * <pre>
+ * BenchmarkRunner [-f filter] [-wi warmups] [-i iterations] [-t ms] [-rf results.json]
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+	// 99.9% confidence, as reported by JMH
+	private static final double Z = 3.291;
+
+	private String filter = "";
+	private int warmupIterations = 3;
+	private int iterations = 5;
+	private long iterationTime = 1000;
+	private String resultFile;
+
+	public static List<Benchmark> createBenchmarks() {
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		for (int branching : new int[] { 2, 8, 32 }) {
+			for (int depth : new int[] { 4, 10 }) {
+				benchmarks.add(new UCTBenchmark(branching, depth));
+			}
+		}
+		for (int branching : new int[] { 8, 64 }) {
+			benchmarks.add(SelectorBenchmark.ucb1(branching));
+			benchmarks.add(SelectorBenchmark.ucbTuned(branching));
+			benchmarks.add(SelectorBenchmark.exp3(branching));
+			benchmarks.add(SelectorBenchmark.logExp3(branching));
+			benchmarks.add(SelectorBenchmark.chanceProportional(branching));
+		}
+		for (int dimension : new int[] { 2, 10, 40 }) {
+			benchmarks.add(new HOOBenchmark(dimension, 2000));
+		}
+		for (CopyBenchmark.Mode mode : CopyBenchmark.Mode.values()) {
+			benchmarks.add(new CopyBenchmark(mode));
+		}
+		return benchmarks;
+	}
+
+	public static void main(String[] args) throws IOException {
+		BenchmarkRunner runner = new BenchmarkRunner();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for " + arg);
+			}
+			String value = args[++i];
+			if (arg.equals("-f")) {
+				runner.filter = value;
+			} else if (arg.equals("-wi")) {
+				runner.warmupIterations = Integer.parseInt(value);
+			} else if (arg.equals("-i")) {
+				runner.iterations = Integer.parseInt(value);
+			} else if (arg.equals("-t")) {
+				runner.iterationTime = Long.parseLong(value);
+			} else if (arg.equals("-rf")) {
+				runner.resultFile = value;
+			} else {
+				throw new IllegalArgumentException("Unknown option " + arg);
+			}
+		}
+		runner.run(createBenchmarks());
+	}
+
+	public void run(List<Benchmark> benchmarks) throws IOException {
+		MCTS.DEBUG = false;
+		StringBuilder json = new StringBuilder("[\n");
+		boolean first = true;
+		for (Benchmark benchmark : benchmarks) {
+			if (!benchmark.toString().contains(filter)) {
+				continue;
+			}
+			Result result = measure(benchmark);
+			System.out.println(String.format(Locale.US,
+					"%-70s %14.1f +- %10.1f %s %12.1f B/op", benchmark,
+					result.score, result.error, benchmark.getUnit(),
+					result.allocation));
+			if (!first) {
+				json.append(",\n");
+			}
+			first = false;
+			appendJson(json, benchmark, result);
+		}
+		json.append("\n]\n");
+
+		if (resultFile != null) {
+			Writer writer = new FileWriter(resultFile);
+			try {
+				writer.write(json.toString());
+			} finally {
+				writer.close();
+			}
+		}
+	}
+
+	private Result measure(Benchmark benchmark) {
+		for (int i = 0; i < warmupIterations; i++) {
+			iteration(benchmark, null);
+		}
+		Result result = new Result();
+		result.raw = new double[iterations];
+		long totalOps = 0;
+		long totalBytes = 0;
+		for (int i = 0; i < iterations; i++) {
+			long[] opsAndBytes = new long[2];
+			result.raw[i] = iteration(benchmark, opsAndBytes);
+			totalOps += opsAndBytes[0];
+			totalBytes += opsAndBytes[1];
+		}
+
+		double sum = 0;
+		for (double score : result.raw) {
+			sum += score;
+		}
+		result.score = sum / iterations;
+		if (iterations > 1) {
+			double sumsq = 0;
+			for (double score : result.raw) {
+				sumsq += (score - result.score) * (score - result.score);
+			}
+			double sd = Math.sqrt(sumsq / (iterations - 1));
+			result.error = Z * sd / Math.sqrt(iterations);
+		}
+		result.allocation = totalBytes < 0 ? Double.NaN : totalBytes
+				/ (double) totalOps;
+		return result;
+	}
+
+	/**
+	 * @return operations per second
+	 */
+	private double iteration(Benchmark benchmark, long[] opsAndBytes) {
+		benchmark.setUp();
+		long ops = 0;
+		long bytes = allocatedBytes();
+		long start = System.nanoTime();
+		long end = start + iterationTime * 1000000;
+		long now;
+		do {
+			ops += benchmark.run();
+			now = System.nanoTime();
+		} while (now < end);
+		long allocated = allocatedBytes();
+		if (opsAndBytes != null) {
+			opsAndBytes[0] = ops;
+			opsAndBytes[1] = (bytes < 0 || allocated < 0) ? -1 : allocated
+					- bytes;
+		}
+		return ops / ((now - start) / 1e9);
+	}
+
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	private void appendJson(StringBuilder json, Benchmark benchmark,
+			Result result) {
+		json.append("  {\n");
+		json.append("    \"benchmark\" : \"").append(benchmark.getName())
+				.append("\",\n");
+		json.append("    \"mode\" : \"thrpt\",\n");
+		json.append("    \"warmupIterations\" : ").append(warmupIterations)
+				.append(",\n");
+		json.append("    \"measurementIterations\" : ").append(iterations)
+				.append(",\n");
+		json.append("    \"params\" : {");
+		boolean first = true;
+		for (Map.Entry<String, String> param : benchmark.getParams()
+				.entrySet()) {
+			json.append(first ? " " : ", ");
+			json.append("\"").append(param.getKey()).append("\" : \"")
+					.append(param.getValue()).append("\"");
+			first = false;
+		}
+		json.append(" },\n");
+		json.append("    \"primaryMetric\" : {\n");
+		json.append("      \"score\" : ").append(number(result.score))
+				.append(",\n");
+		json.append("      \"scoreError\" : ").append(number(result.error))
+				.append(",\n");
+		json.append("      \"scoreUnit\" : \"").append(benchmark.getUnit())
+				.append("\",\n");
+		json.append("      \"rawData\" : [ [ ");
+		for (int i = 0; i < result.raw.length; i++) {
+			json.append(i == 0 ? "" : ", ").append(number(result.raw[i]));
+		}
+		json.append(" ] ]\n");
+		json.append("    },\n");
+		json.append("    \"secondaryMetrics\" : {\n");
+		json.append("      \"gc.alloc.rate.norm\" : { \"score\" : ")
+				.append(number(result.allocation))
+				.append(", \"scoreUnit\" : \"B/op\" }\n");
+		json.append("    }\n");
+		json.append("  }");
+	}
+
+	private static String number(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return "\"NaN\"";
+		}
+		return String.format(Locale.US, "%.3f", value);
+	}
+
+	private static class Result {
+		double score;
+		double error;
+		double allocation;
+		double[] raw;
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.benchmark;
+
+import java.io.Serializable;
+
+import ssamot.utilities.CopyPool;
+import ssamot.utilities.FastCopyable;
+import ssamot.utilities.SerialClone;
+
+/**
+ * Cost of copying a 7x7 board state once per simulation: through
+ * serialisation, with {@link FastCopyable#copy()}, and through a
+ * {@link CopyPool}.
+ */
+public class CopyBenchmark extends Benchmark {
+
+	public enum Mode {
+		SERIAL, COPY, POOL
+	}
+
+	private static final int COPIES_PER_RUN = 100;
+
+	private final Mode mode;
+	private final Board board = new Board();
+	private final SerialBoard serialBoard = new SerialBoard();
+	private final CopyPool<Board> pool = new CopyPool<Board>();
+	private int sink;
+
+	public CopyBenchmark(Mode mode) {
+		super("State.copy");
+		this.mode = mode;
+		param("mode", mode);
+		for (int i = 0; i < board.cells.length; i++) {
+			board.cells[i] = (byte) (i % 3);
+			serialBoard.cells[i] = (byte) (i % 3);
+		}
+	}
+
+	@Override
+	public long run() {
+		for (int i = 0; i < COPIES_PER_RUN; i++) {
+			switch (mode) {
+			case SERIAL:
+				sink += SerialClone.clone(serialBoard).moves;
+				break;
+			case COPY:
+				sink += board.copy().moves;
+				break;
+			case POOL:
+				Board copy = pool.copyOf(board);
+				sink += copy.moves;
+				pool.release(copy);
+				break;
+			}
+		}
+		return COPIES_PER_RUN;
+	}
+
+	public int getSink() {
+		return sink;
+	}
+
+	private static class SerialBoard implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		byte[] cells = new byte[49];
+		int toMove;
+		int moves;
+	}
+
+	private static class Board extends SerialBoard implements
+			FastCopyable<Board> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Board copy() {
+			Board copy = new Board();
+			copy.copyFrom(this);
+			return copy;
+		}
+
+		@Override
+		public void copyFrom(Board other) {
+			System.arraycopy(other.cells, 0, cells, 0, cells.length);
+			toMove = other.toMove;
+			moves = other.moves;
+		}
+	}
+
+}
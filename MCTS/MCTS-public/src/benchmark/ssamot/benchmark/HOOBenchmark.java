@@ -0,0 +1,51 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.benchmark;
+
+import ssamot.mcts.ucb.optimisation.HOOOptimiser;
+import ssamot.test.XSquaredCoco;
+
+/**
+ * Iterations per second of HOO on the shifted sphere problem. The optimiser
+ * is sized for a fixed number of iterations, so every run starts a fresh
+ * one.
+ */
+public class HOOBenchmark extends Benchmark {
+
+	private final int dimension;
+	private final int iterations;
+
+	public HOOBenchmark(int dimension, int iterations) {
+		super("HOOOptimiser.iterations");
+		this.dimension = dimension;
+		this.iterations = iterations;
+		param("dimension", dimension);
+		param("iterations", iterations);
+	}
+
+	@Override
+	public long run() {
+		HOOOptimiser hoo = new HOOOptimiser(new XSquaredCoco(), dimension,
+				iterations, -1, 1, 1);
+		hoo.runForSim(iterations);
+		return iterations;
+	}
+
+}
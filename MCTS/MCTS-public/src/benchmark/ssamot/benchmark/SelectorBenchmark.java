@@ -0,0 +1,173 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.benchmark;
+
+import java.util.List;
+
+import ssamot.mcts.MCTSNode;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.selectors.ChanceProportional;
+import ssamot.mcts.selectors.Selector;
+import ssamot.mcts.selectors.exp3.EXP3;
+import ssamot.mcts.selectors.exp3.EXP3Node;
+import ssamot.mcts.selectors.exp3.LogEXP3;
+import ssamot.mcts.selectors.ucb.UCB1;
+import ssamot.mcts.selectors.ucb.UCBTUNED;
+
+/**
+ * Cost of one selectChild call over a node with a given number of children
+ * that all carry statistics.
+ */
+public class SelectorBenchmark<N extends MCTSNode> extends Benchmark {
+
+	private static final int SELECTIONS_PER_RUN = 1000;
+
+	private final Selector<N> selector;
+	private final N node;
+
+	private SelectorBenchmark(String selectorName, Selector<N> selector,
+			N node, int branching) {
+		super("Selector.selectChild");
+		this.selector = selector;
+		this.node = node;
+		param("selector", selectorName);
+		param("branching", branching);
+	}
+
+	@Override
+	public long run() {
+		for (int i = 0; i < SELECTIONS_PER_RUN; i++) {
+			selector.selectChild(node);
+		}
+		return SELECTIONS_PER_RUN;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static SelectorBenchmark<StatisticsNode> ucb1(int branching) {
+		return new SelectorBenchmark<StatisticsNode>("UCB1", (Selector) new UCB1(),
+				statisticsNode(branching), branching);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static SelectorBenchmark<StatisticsNode> ucbTuned(int branching) {
+		return new SelectorBenchmark<StatisticsNode>("UCBTUNED",
+				(Selector) new UCBTUNED(), statisticsNode(branching), branching);
+	}
+
+	public static SelectorBenchmark<StatisticsNode> chanceProportional(
+			int branching) {
+		StatisticsNode node = statisticsNode(branching);
+		for (StatisticsNode child : node.getChildren()) {
+			child.setProbability(1.0 / branching);
+		}
+		return new SelectorBenchmark<StatisticsNode>("ChanceProportional",
+				new ChanceProportional<StatisticsNode>(), node, branching);
+	}
+
+	public static SelectorBenchmark<EXP3Node> exp3(int branching) {
+		EXP3Node node = new FlatEXP3Node(-1, branching);
+		List<EXP3Node> children = node.getChildren();
+		for (int i = 0; i < children.size(); i++) {
+			children.get(i).setReward(1.0 + i / (double) branching);
+		}
+		return new SelectorBenchmark<EXP3Node>("EXP3", new EXP3(), node,
+				branching);
+	}
+
+	public static SelectorBenchmark<EXP3Node> logExp3(int branching) {
+		EXP3Node node = new FlatEXP3Node(-1, branching);
+		List<EXP3Node> children = node.getChildren();
+		for (int i = 0; i < children.size(); i++) {
+			children.get(i).setLogWeight(i / (double) branching);
+		}
+		return new SelectorBenchmark<EXP3Node>("LogEXP3", new LogEXP3(), node,
+				branching);
+	}
+
+	private static StatisticsNode statisticsNode(int branching) {
+		SyntheticNode node = new SyntheticNode(branching, 1);
+		List<StatisticsNode> children = node.getChildren();
+		for (int i = 0; i < children.size(); i++) {
+			for (int j = 0; j <= i; j++) {
+				double reward = ((i * 7 + j * 13) % 10) / 10.0;
+				children.get(i).getStatistics().addValue(reward);
+				node.getStatistics().addValue(reward);
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * A root with {@code branching} leaf children, for EXP3.
+	 */
+	private static class FlatEXP3Node extends EXP3Node {
+		private final int action;
+		private final int branching;
+
+		FlatEXP3Node(int action, int branching) {
+			this.action = action;
+			this.branching = branching;
+			this.autoGenerateChildren = true;
+		}
+
+		@Override
+		public int getAction() {
+			return action;
+		}
+
+		@Override
+		public int getRewardId() {
+			return 1;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return action != -1;
+		}
+
+		@Override
+		public void generateChildren() {
+			for (int i = 0; i < branching; i++) {
+				children.add(new FlatEXP3Node(i, branching));
+			}
+		}
+
+		@Override
+		public boolean canBeEvaluated() {
+			return isLeaf();
+		}
+
+		@Override
+		public double evaluate(int player) {
+			return 0;
+		}
+
+		@Override
+		public double evaluateDefaultPolicy(int player) {
+			return 0;
+		}
+
+		@Override
+		public int getGameTotalGamePlayers() {
+			return 2;
+		}
+	}
+
+}
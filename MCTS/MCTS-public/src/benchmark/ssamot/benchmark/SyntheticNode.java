@@ -0,0 +1,95 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.benchmark;
+
+import ssamot.mcts.StatisticsNode;
+
+/**
+ * A game tree of fixed branching factor and depth whose leaf rewards are a
+ * hash of the path, so that every run searches the same tree.
+ */
+public class SyntheticNode extends StatisticsNode {
+
+	private final int branching;
+	private final int depth;
+	private final int maxDepth;
+	private final int action;
+	private final long path;
+
+	public SyntheticNode(int branching, int maxDepth) {
+		this(branching, 0, maxDepth, -1, 17);
+	}
+
+	private SyntheticNode(int branching, int depth, int maxDepth, int action,
+			long path) {
+		this.branching = branching;
+		this.depth = depth;
+		this.maxDepth = maxDepth;
+		this.action = action;
+		this.path = path;
+		this.autoGenerateChildren = true;
+	}
+
+	@Override
+	public int getAction() {
+		return action;
+	}
+
+	@Override
+	public int getRewardId() {
+		return 1;
+	}
+
+	@Override
+	public boolean isLeaf() {
+		return depth >= maxDepth;
+	}
+
+	@Override
+	public void generateChildren() {
+		for (int i = 0; i < branching; i++) {
+			children.add(new SyntheticNode(branching, depth + 1, maxDepth, i,
+					path * 31 + i));
+		}
+	}
+
+	@Override
+	public boolean canBeEvaluated() {
+		return isLeaf();
+	}
+
+	@Override
+	public double evaluate(int player) {
+		long h = path * 0x9E3779B97F4A7C15L;
+		h ^= (h >>> 29);
+		return (h & 0xffff) / 65535.0;
+	}
+
+	@Override
+	public double evaluateDefaultPolicy(int player) {
+		return evaluate(player);
+	}
+
+	@Override
+	public int getGameTotalGamePlayers() {
+		return 2;
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.benchmark;
+
+import ssamot.mcts.UCT;
+
+/**
+ * Simulations per second of UCT on a synthetic tree, starting from an empty
+ * tree every iteration.
+ */
+public class UCTBenchmark extends Benchmark {
+
+	private static final int SIMULATIONS_PER_RUN = 100;
+
+	private final int branching;
+	private final int depth;
+	private UCT uct;
+
+	public UCTBenchmark(int branching, int depth) {
+		super("UCT.simulations");
+		this.branching = branching;
+		this.depth = depth;
+		param("branching", branching);
+		param("depth", depth);
+	}
+
+	@Override
+	public void setUp() {
+		uct = new UCT(new SyntheticNode(branching, depth));
+	}
+
+	@Override
+	public long run() {
+		uct.runForSim(SIMULATIONS_PER_RUN);
+		return SIMULATIONS_PER_RUN;
+	}
+
+}
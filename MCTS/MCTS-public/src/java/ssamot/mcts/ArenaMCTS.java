@@ -0,0 +1,192 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import ssamot.mcts.backpropagators.IndexBackpropagator;
+import ssamot.mcts.backpropagators.IndexUCBBackpropagator;
+import ssamot.mcts.selectors.IndexSelector;
+import ssamot.mcts.selectors.ucb.IndexUCB1;
+import ssamot.utilities.ElapsedCpuTimer;
+
+/**
+ * UCT over a {@link TreeArena} instead of a tree of StatisticsNodes. Each
+ * simulation replays the selected actions on a scratch copy of the root
+ * state, expands the first unexpanded node it reaches and evaluates from its
+ * first selected child. Only deterministic and adversarial nodes are
+ * supported.
+ */
+public class ArenaMCTS<S extends ArenaState<S>> {
+
+	private final TreeArena tree;
+
+	private S rootState;
+	private S state;
+
+	private IndexSelector selector = new IndexUCB1();
+	private IndexBackpropagator backpropagator = new IndexUCBBackpropagator();
+
+	private int[] path = new int[64];
+	private int[] actions;
+	private double[] reward;
+
+	public ArenaMCTS(S rootState) {
+		this(rootState, new TreeArena());
+	}
+
+	public ArenaMCTS(S rootState, TreeArena tree) {
+		this.tree = tree;
+		setRootState(rootState);
+	}
+
+	/**
+	 * Starts a new search from {@code rootState}, reusing the arena's memory.
+	 */
+	public void setRootState(S rootState) {
+		this.rootState = rootState;
+		this.state = rootState.copy();
+		this.actions = new int[rootState.getMaximumActions()];
+		this.reward = new double[rootState.getGameTotalGamePlayers()];
+		tree.clear();
+	}
+
+	public S getRootState() {
+		return rootState;
+	}
+
+	public TreeArena getTree() {
+		return tree;
+	}
+
+	public IndexSelector getSelector() {
+		return selector;
+	}
+
+	public void setSelector(IndexSelector selector) {
+		this.selector = selector;
+	}
+
+	public IndexBackpropagator getBackpropagator() {
+		return backpropagator;
+	}
+
+	public void setBackpropagator(IndexBackpropagator backpropagator) {
+		this.backpropagator = backpropagator;
+	}
+
+	public void runForMs(long time) {
+		int totalSimulations = 0;
+		ElapsedCpuTimer cput = new ElapsedCpuTimer(
+				ElapsedCpuTimer.TimerType.WALL_TIME);
+
+		for (;;) {
+			totalSimulations += 1;
+			playOneSequence();
+			if (time <= cput.elapsedMillis()) {
+				break;
+			}
+		}
+
+		if (MCTS.DEBUG) {
+			System.err.println("Total Time Spent is: "
+					+ (double) (cput.elapsedMillis()) + "ms");
+			System.err.println("Total Simulations: " + totalSimulations);
+		}
+	}
+
+	public void runForSim(int simulations) {
+		ElapsedCpuTimer cput = new ElapsedCpuTimer(
+				ElapsedCpuTimer.TimerType.WALL_TIME);
+
+		for (int i = 0; i < simulations; i++) {
+			playOneSequence();
+		}
+
+		if (MCTS.DEBUG) {
+			System.err.println("Total Time Spent is: "
+					+ (double) (cput.elapsedMillis()) + "ms");
+			System.err.println("Total Simulations: " + simulations);
+		}
+	}
+
+	/**
+	 * @return the root child with the highest mean, or -1 if the root has no
+	 *         children
+	 */
+	public int getHighestScoringChild() {
+		int first = tree.getFirstChild(TreeArena.ROOT);
+		int end = first + tree.getChildCount(TreeArena.ROOT);
+		double max = Double.NEGATIVE_INFINITY;
+		int index = -1;
+		for (int child = first; child < end; child++) {
+			if (tree.getVisits(child) == 0) {
+				continue;
+			}
+			double cVal = tree.getMean(child);
+			if (cVal >= max) {
+				index = child;
+				max = cVal;
+			}
+		}
+		return index;
+	}
+
+	public int getHighestScoringAction() {
+		int child = getHighestScoringChild();
+		return child == -1 ? -1 : tree.getAction(child);
+	}
+
+	private void playOneSequence() {
+		state.copyFrom(rootState);
+
+		int node = TreeArena.ROOT;
+		int length = 0;
+		path[length++] = node;
+
+		while (tree.isExpanded(node) && tree.getChildCount(node) > 0) {
+			node = selector.selectChild(tree, node);
+			state.makeAction(tree.getAction(node));
+			length = push(length, node);
+		}
+
+		if (!tree.isExpanded(node)) {
+			int count = state.getActions(actions);
+			tree.expand(node, actions, count, state.getPlayerToMove());
+			if (count > 0) {
+				node = selector.selectChild(tree, node);
+				state.makeAction(tree.getAction(node));
+				length = push(length, node);
+			}
+		}
+
+		state.evaluate(reward);
+		backpropagator.backpropagate(tree, path, length, reward);
+	}
+
+	private int push(int length, int node) {
+		if (length == path.length) {
+			int[] grown = new int[path.length * 2];
+			System.arraycopy(path, 0, grown, 0, length);
+			path = grown;
+		}
+		path[length] = node;
+		return length + 1;
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import ssamot.utilities.FastCopyable;
+
+/**
+ * Game state driven by {@link ArenaMCTS}. Since arena nodes hold statistics
+ * only, the searcher replays actions on a scratch copy of the root state on
+ * the way down.
+ */
+public interface ArenaState<S extends ArenaState<S>> extends FastCopyable<S> {
+
+	/**
+	 * Writes the legal actions into {@code actions} and returns how many
+	 * there are; zero means the state is terminal.
+	 */
+	public int getActions(int[] actions);
+
+	public int getMaximumActions();
+
+	public void makeAction(int action);
+
+	/**
+	 * The reward id (player) that the children of this state are credited
+	 * to, i.e. the player choosing the next action.
+	 */
+	public int getPlayerToMove();
+
+	/**
+	 * Writes the score of every player into {@code out}, running a default
+	 * policy first if the state is not terminal.
+	 */
+	public void evaluate(double[] out);
+
+	public int getGameTotalGamePlayers();
+
+}
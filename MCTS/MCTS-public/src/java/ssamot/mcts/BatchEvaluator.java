@@ -0,0 +1,43 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.util.List;
+
+/**
+ * Scores many leaves in one call, for evaluators with a high per-call cost
+ * such as a neural network. Used by MCTS's batched pipeline instead of
+ * calling evaluate() on every leaf.
+ * 
+ * A leaf is never expanded while it is being evaluated, but the same leaf may
+ * appear more than once in a batch, or be selected again while a previous
+ * batch is still evaluating it; evaluating one node from several threads at
+ * once must be safe.
+ */
+public interface BatchEvaluator<N extends MCTSNode> {
+	/**
+	 * Writes the score of every player for {@code leaves.get(i)} into
+	 * {@code out[i]}. {@code defaultPolicy[i]} tells whether a serial search
+	 * would score that leaf with evaluateDefaultPolicy() rather than
+	 * evaluate(). {@code out} may have more rows than there are leaves.
+	 */
+	public void evaluateBatch(List<N> leaves, boolean[] defaultPolicy,
+			double[][] out);
+}
@@ -0,0 +1,49 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import ssamot.mcts.backpropagators.LogEXP3Backpropagator;
+import ssamot.mcts.selectors.ChanceProportional;
+import ssamot.mcts.selectors.exp3.EXP3Node;
+import ssamot.mcts.selectors.exp3.LogEXP3;
+
+/**
+ * EXP3 tree search with log-domain weights; see {@link LogEXP3}. Nodes
+ * need a positive gamma to learn.
+ */
+public class LogEXP3T extends MCTS<EXP3Node> {
+
+	public LogEXP3T(EXP3Node rootNode) {
+		this(rootNode, new LogEXP3Backpropagator<EXP3Node>());
+	}
+
+	/**
+	 * With a custom backpropagator, e.g. an EXP3.P one.
+	 */
+	public LogEXP3T(EXP3Node rootNode,
+			LogEXP3Backpropagator<EXP3Node> backpropagator) {
+		super(rootNode);
+		setActionSelector(new LogEXP3());
+		setBackpropagator(backpropagator);
+		setChanceNodeSelector(new ChanceProportional());
+		setDeterministicNodeSelector(new LogEXP3());
+	}
+
+}
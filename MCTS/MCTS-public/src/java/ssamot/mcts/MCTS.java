@@ -20,12 +20,26 @@
 package ssamot.mcts;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ssamot.config.GameConfig;
 import ssamot.mcts.MCTSNode.NodeType;
 import ssamot.mcts.backpropagators.Backpropagator;
+import ssamot.mcts.backpropagators.PrimitiveBackpropagator;
 import ssamot.mcts.selectors.Selector;
 import ssamot.utilities.ElapsedCpuTimer;
+import ssamot.utilities.RandomService;
+import ssamot.utilities.RandomSource;
+import ssamot.visualitation.AsyncVisualisationHandler;
 import ssamot.visualitation.MCTSCell;
 import ssamot.visualitation.MCTSVisualisationHandler;
 import ssamot.visualitation.Visualiser;
@@ -36,10 +50,44 @@ import ssamot.visualitation.Visualiser;
  */
 public class MCTS<N extends MCTSNode> {
 
-	public static boolean DEBUG = true;
+	public static boolean DEBUG = false;
+
+	public enum Parallelisation {
+		// a single thread searches the tree
+		NONE,
+		// every thread searches its own tree, root statistics are merged
+		ROOT,
+		// all threads search the same tree, spread out using virtual loss
+		TREE
+	};
 
 	private N rootNode;
 
+	private Parallelisation parallelisation = Parallelisation.NONE;
+
+	private int threads = Math.max(1, GameConfig.getInstance()
+			.getRunTimeThreads());
+
+	private RootNodeFactory<N> rootNodeFactory;
+
+	private ExecutorService executor;
+	private int executorThreads;
+
+	private SearchBuffer searchBuffer;
+
+	private TranspositionTable transpositionTable;
+
+	private final AtomicLong nodeCount = new AtomicLong();
+
+	private SearchMetrics metrics;
+	private MetricsSink metricsSink;
+
+	private BatchEvaluator<N> batchEvaluator;
+	private int batchSize = 16;
+	private int evaluationThreads = 1;
+	private ExecutorService evaluationExecutor;
+	private int evaluationExecutorThreads;
+
 	private int treePolicyMaxTreeDepth = 30000;
 	private boolean enableDefaultPolicy = false;
 
@@ -51,7 +99,7 @@ public class MCTS<N extends MCTSNode> {
 
 	private boolean visualisation;
 
-	private Visualiser vis;
+	private volatile Visualiser vis;
 
 	private MCTSVisualisationHandler<N> visualisationHandler;
 
@@ -121,6 +169,114 @@ public class MCTS<N extends MCTSNode> {
 		this.enableDefaultPolicy = enableDefaultPolicy;
 	}
 
+	public Parallelisation getParallelisation() {
+		return parallelisation;
+	}
+
+	public void setParallelisation(Parallelisation parallelisation) {
+		this.parallelisation = parallelisation;
+	}
+
+	public SearchMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Starts recording playouts, depths, nodes and phase times into
+	 * {@code metrics}; null (the default) turns recording off.
+	 */
+	public void setMetrics(SearchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public MetricsSink getMetricsSink() {
+		return metricsSink;
+	}
+
+	/**
+	 * Called with the metrics after every runForMs/runForSim and every
+	 * {@link SearchSession} run, if metrics are being recorded.
+	 */
+	public void setMetricsSink(MetricsSink metricsSink) {
+		this.metricsSink = metricsSink;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread, got "
+					+ threads);
+		}
+		this.threads = threads;
+	}
+
+	public RootNodeFactory<N> getRootNodeFactory() {
+		return rootNodeFactory;
+	}
+
+	public void setRootNodeFactory(RootNodeFactory<N> rootNodeFactory) {
+		this.rootNodeFactory = rootNodeFactory;
+	}
+
+	public TranspositionTable getTranspositionTable() {
+		return transpositionTable;
+	}
+
+	/**
+	 * Once set, children implementing {@link Transposable} that represent a
+	 * state already in the table share that node's statistics and subtree.
+	 * Only applies to StatisticsNode trees.
+	 */
+	public void setTranspositionTable(TranspositionTable transpositionTable) {
+		this.transpositionTable = transpositionTable;
+	}
+
+	public BatchEvaluator<N> getBatchEvaluator() {
+		return batchEvaluator;
+	}
+
+	/**
+	 * Once set, searches run as a pipeline: batches of leaves are selected
+	 * under virtual loss and handed to this evaluator on a separate
+	 * evaluation stage while the next batch is being selected. Takes
+	 * precedence over the parallelisation setting.
+	 */
+	public void setBatchEvaluator(BatchEvaluator<N> batchEvaluator) {
+		this.batchEvaluator = batchEvaluator;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive, got "
+					+ batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+
+	public int getEvaluationThreads() {
+		return evaluationThreads;
+	}
+
+	/**
+	 * Number of threads in the evaluation stage. With more than one, each
+	 * batch is split evenly between them.
+	 */
+	public void setEvaluationThreads(int evaluationThreads) {
+		if (evaluationThreads < 1) {
+			throw new IllegalArgumentException(
+					"Need at least one evaluation thread, got "
+							+ evaluationThreads);
+		}
+		this.evaluationThreads = evaluationThreads;
+	}
+
 	public N getRootNode() {
 		return rootNode;
 	}
@@ -129,6 +285,53 @@ public class MCTS<N extends MCTSNode> {
 		this.rootNode = rootNode;
 	}
 
+	/**
+	 * Re-roots the tree at the root child that plays {@code action}, keeping
+	 * its subtree for the next search.
+	 * 
+	 * @return the number of visits retained
+	 */
+	public long advanceRoot(int action) {
+		List<N> children = rootNode.getChildren();
+		if (children != null) {
+			for (N child : children) {
+				if (child.getAction() == action) {
+					return advanceRoot(child);
+				}
+			}
+		}
+		throw new IllegalArgumentException("The root has no child playing "
+				+ action);
+	}
+
+	/**
+	 * Re-roots the tree at {@code observedChild}, a node anywhere below the
+	 * current root, keeping its subtree for the next search. Everything else,
+	 * including the transposition table's entries for it, is released for
+	 * collection; no collection is forced.
+	 * 
+	 * @return the number of visits retained
+	 */
+	public long advanceRoot(N observedChild) {
+		N oldRoot = rootNode;
+		rootNode = observedChild;
+		if (oldRoot != observedChild) {
+			oldRoot.prune();
+		}
+		if (transpositionTable != null) {
+			// the table would keep the pruned subtrees reachable
+			transpositionTable.retainSubtree((StatisticsNode) observedChild);
+		}
+		if (searchBuffer != null) {
+			searchBuffer.nodes.clear();
+		}
+		if (observedChild instanceof StatisticsNode) {
+			return (long) ((StatisticsNode) observedChild).getStatistics()
+					.getN();
+		}
+		return 0;
+	}
+
 	public MCTS(N rootNode) {
 		super();
 		this.rootNode = rootNode;
@@ -144,30 +347,21 @@ public class MCTS<N extends MCTSNode> {
 
 	public void runForMs(long time) {
 
-		int totalSimulations = 0;
-
 		// reset the timer
 		ElapsedCpuTimer cput = new ElapsedCpuTimer(
 				ElapsedCpuTimer.TimerType.WALL_TIME);
+		long start = System.nanoTime();
+		long nodesBefore = nodeCount.get();
 
-		for (;;) {
-			// Do a simulation
-			totalSimulations += 1;
-			rootNode.init();
-			playOneSequence(rootNode);
-			// System.out.println(cput.elapsedMillis());
-			if (time <= cput.elapsedMillis()) {
-
-				break;
-			}
-
-		}
+		int totalSimulations = search(time, Integer.MAX_VALUE);
 
 		if (DEBUG) {
 			System.err.println("Total Time Spent is: "
 					+ (double) (cput.elapsedMillis()) + "ms");
 			System.err.println("Total Simulations: " + totalSimulations);
 		}
+		searchFinished(System.nanoTime() - start, nodeCount.get()
+				- nodesBefore);
 
 	}
 
@@ -175,21 +369,416 @@ public class MCTS<N extends MCTSNode> {
 
 		ElapsedCpuTimer cput = new ElapsedCpuTimer(
 				ElapsedCpuTimer.TimerType.WALL_TIME);
+		long start = System.nanoTime();
+		long nodesBefore = nodeCount.get();
 
-		int totalSimulations = 0;
-
-		for (; totalSimulations < simulations; totalSimulations++) {
-			//System.err.println(totalSimulations);
-			rootNode.init();
-			playOneSequence(rootNode);
-		}
+		int totalSimulations = simulate(simulations);
 
 		if (DEBUG) {
 			System.err.println("Total Time Spent is: "
 					+ (double) (cput.elapsedMillis()) + "ms");
 			System.err.println("Total Simulations: " + totalSimulations);
 		}
+		searchFinished(System.nanoTime() - start, nodeCount.get()
+				- nodesBefore);
+
+	}
+
+	/**
+	 * Plays the given number of simulations, in parallel if so configured.
+	 * Callers running a search in several such steps account for it with
+	 * {@link #searchFinished(long, long)} once it is over.
+	 * 
+	 * @return the number of simulations played
+	 */
+	int simulate(int simulations) {
+		return search(Long.MAX_VALUE, simulations);
+	}
 
+	/**
+	 * Runs simulations until either the time (in ms) is up or the number of
+	 * simulations has been played.
+	 * 
+	 * @return the number of simulations played
+	 */
+	private int search(long time, int simulations) {
+		if (batchEvaluator != null) {
+			return runBatched(time, simulations);
+		} else if (isParallel()) {
+			return runParallel(time, simulations);
+		} else {
+			return runSerial(time, simulations);
+		}
+	}
+
+	private int runSerial(long time, int simulations) {
+		ElapsedCpuTimer cput = new ElapsedCpuTimer(
+				ElapsedCpuTimer.TimerType.WALL_TIME);
+		boolean timed = time != Long.MAX_VALUE;
+		SearchBuffer buffer = getSearchBuffer();
+		buffer.startRecording(metrics);
+		int totalSimulations = 0;
+		try {
+			while (totalSimulations < simulations) {
+				// Do a simulation
+				totalSimulations += 1;
+				rootNode.init();
+				playOneSequence(rootNode, buffer, false);
+				if (timed && time <= cput.elapsedMillis()) {
+					break;
+				}
+			}
+		} finally {
+			buffer.stopRecording();
+		}
+		return totalSimulations;
+	}
+
+	/**
+	 * Accounts for one finished search, however many steps it ran in, and
+	 * hands the metrics to the sink.
+	 */
+	void searchFinished(long nanos, long nodes) {
+		SearchMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.searchFinished(nanos, nodes, rootNode);
+			if (metricsSink != null) {
+				metricsSink.searchFinished(metrics);
+			}
+		}
+	}
+
+	/**
+	 * Number of nodes this searcher has caused to be generated, counting the
+	 * children of every node it expanded.
+	 */
+	public long getNodeCount() {
+		return nodeCount.get();
+	}
+
+	private boolean isParallel() {
+		return parallelisation != Parallelisation.NONE && threads > 1;
+	}
+
+	/**
+	 * Runs simulations on {@link #threads} threads until either the time (in
+	 * ms) is up or the number of simulations has been played.
+	 * 
+	 * @return the number of simulations played
+	 */
+	private int runParallel(final long time, final int simulations) {
+		if (getVisualisation()) {
+			throw new IllegalStateException(
+					"Visualisation is not supported with parallel search");
+		}
+
+		final boolean rootParallel = parallelisation == Parallelisation.ROOT;
+		final List<N> roots = new ArrayList<N>(threads);
+		roots.add(rootNode);
+		if (rootParallel) {
+			if (!(rootNode instanceof StatisticsNode)) {
+				throw new UnsupportedOperationException(
+						"Root parallelisation needs StatisticsNode trees");
+			}
+			if (rootNodeFactory == null) {
+				throw new IllegalStateException(
+						"Root parallelisation needs a RootNodeFactory");
+			}
+			for (int i = 1; i < threads; i++) {
+				roots.add(rootNodeFactory.createRootNode());
+			}
+		}
+
+		final ElapsedCpuTimer cput = new ElapsedCpuTimer(
+				ElapsedCpuTimer.TimerType.WALL_TIME);
+		final AtomicInteger started = new AtomicInteger();
+		final AtomicInteger played = new AtomicInteger();
+
+		List<Callable<Object>> workers = new ArrayList<Callable<Object>>(
+				threads);
+		for (int i = 0; i < threads; i++) {
+			final N root = rootParallel ? roots.get(i) : rootNode;
+			// split here, in worker order, so a seeded search is repeatable
+			final RandomSource random = RandomService.split();
+			workers.add(new Callable<Object>() {
+				@Override
+				public Object call() {
+					RandomSource previous = RandomService.set(random);
+					SearchBuffer buffer = new SearchBuffer();
+					buffer.startRecording(metrics);
+					try {
+						while (started.getAndIncrement() < simulations) {
+							root.init();
+							playOneSequence(root, buffer, !rootParallel);
+							played.incrementAndGet();
+							if (time <= cput.elapsedMillis()) {
+								break;
+							}
+						}
+					} finally {
+						buffer.stopRecording();
+						RandomService.set(previous);
+					}
+					return null;
+				}
+			});
+		}
+
+		try {
+			for (Future<Object> future : getExecutor().invokeAll(workers)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while searching", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+
+		if (rootParallel) {
+			mergeRoots(roots);
+		}
+
+		return played.get();
+	}
+
+	/**
+	 * Selects and evaluates leaves in batches until either the time (in ms)
+	 * is up or the number of simulations has been played. While one batch is
+	 * being evaluated the next one is selected; its paths see the virtual
+	 * loss of the batch in flight, and stop at its leaves rather than expand
+	 * them.
+	 * 
+	 * @return the number of simulations played
+	 */
+	private int runBatched(long time, int simulations) {
+		if (simulations <= 0) {
+			return 0;
+		}
+		ElapsedCpuTimer cput = new ElapsedCpuTimer(
+				ElapsedCpuTimer.TimerType.WALL_TIME);
+
+		Batch current = new Batch(batchSize);
+		Batch next = new Batch(batchSize);
+		SearchMetrics.Recorder recorder = metrics == null ? null : metrics
+				.newRecorder();
+
+		fillBatch(current, Math.min(batchSize, simulations), recorder);
+		int selected = current.size;
+		int played = 0;
+		List<Future<Object>> pending = evaluateBatch(current);
+
+		try {
+			for (;;) {
+				boolean more = selected < simulations
+						&& time > cput.elapsedMillis();
+				if (more) {
+					fillBatch(next,
+							Math.min(batchSize, simulations - selected),
+							recorder);
+					selected += next.size;
+				}
+
+				long waiting = recorder == null ? 0 : System.nanoTime();
+				awaitEvaluation(pending);
+				if (recorder != null) {
+					// only the wait shows; evaluation overlapping selection
+					// is free
+					recorder.evaluation(System.nanoTime() - waiting);
+				}
+				backpropagateBatch(current, recorder);
+				played += current.size;
+
+				if (!more) {
+					break;
+				}
+				Batch swap = current;
+				current = next;
+				next = swap;
+				pending = evaluateBatch(current);
+			}
+		} finally {
+			if (recorder != null) {
+				recorder.flush();
+			}
+		}
+
+		return played;
+	}
+
+	private void fillBatch(Batch batch, int count,
+			SearchMetrics.Recorder recorder) {
+		batch.leaves.clear();
+		for (int i = 0; i < count; i++) {
+			rootNode.init();
+			long start = recorder == null ? 0 : System.nanoTime();
+			N leaf = selectLeaf(rootNode, batch.paths.get(i), true);
+			if (recorder != null) {
+				batch.selectionNanos[i] = System.nanoTime() - start;
+			}
+			// the same decision as playOneSequence; a leaf still in flight
+			// stopped selection before its first visit was over, so it gets
+			// another default policy run
+			boolean runDefaultPolicy = !leaf.canBeEvaluated()
+					&& enableDefaultPolicy
+					&& (leaf.isFirstTime() || leaf.isPendingEvaluation());
+			if (runDefaultPolicy) {
+				leaf.setFirstTime(false);
+			}
+			batch.defaultPolicy[i] = runDefaultPolicy;
+			leaf.addPendingEvaluation();
+			batch.leaves.add(leaf);
+
+			int players = leaf.getGameTotalGamePlayers();
+			if (batch.rewards[i] == null || batch.rewards[i].length < players) {
+				batch.rewards[i] = new double[players];
+			}
+		}
+		batch.size = count;
+	}
+
+	private List<Future<Object>> evaluateBatch(final Batch batch) {
+		ExecutorService stage = getEvaluationExecutor();
+		List<Future<Object>> futures = new ArrayList<Future<Object>>(
+				evaluationThreads);
+		int chunk = (batch.size + evaluationThreads - 1) / evaluationThreads;
+		for (int from = 0; from < batch.size; from += chunk) {
+			final int to = Math.min(batch.size, from + chunk);
+			final List<N> leaves = batch.leaves.subList(from, to);
+			final boolean[] defaultPolicy = Arrays.copyOfRange(
+					batch.defaultPolicy, from, to);
+			final double[][] out = Arrays.copyOfRange(batch.rewards, from, to);
+			// split here, in chunk order, so a seeded search is repeatable
+			final RandomSource random = RandomService.split();
+			futures.add(stage.submit(new Callable<Object>() {
+				@Override
+				public Object call() {
+					RandomSource previous = RandomService.set(random);
+					try {
+						batchEvaluator.evaluateBatch(leaves, defaultPolicy,
+								out);
+					} finally {
+						RandomService.set(previous);
+					}
+					return null;
+				}
+			}));
+		}
+		return futures;
+	}
+
+	private void awaitEvaluation(List<Future<Object>> pending) {
+		try {
+			for (Future<Object> future : pending) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while evaluating", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void backpropagateBatch(Batch batch,
+			SearchMetrics.Recorder recorder) {
+		for (int i = 0; i < batch.size; i++) {
+			List<N> path = batch.paths.get(i);
+			double[] reward = batch.rewards[i];
+			long start = recorder == null ? 0 : System.nanoTime();
+			if (backpropagator instanceof PrimitiveBackpropagator) {
+				((PrimitiveBackpropagator<N>) backpropagator).backpropagate(
+						path, reward);
+			} else {
+				int players = batch.leaves.get(i).getGameTotalGamePlayers();
+				List<Double> boxed = new ArrayList<Double>(players);
+				for (int j = 0; j < players; j++) {
+					boxed.add(reward[j]);
+				}
+				backpropagator.backpropagate(path, boxed);
+			}
+			removeVirtualLoss(path);
+			batch.leaves.get(i).removePendingEvaluation();
+			if (recorder != null) {
+				recorder.playout(path.size() - 1, batch.selectionNanos[i], 0,
+						System.nanoTime() - start);
+			}
+		}
+	}
+
+	private synchronized ExecutorService getEvaluationExecutor() {
+		if (evaluationExecutor != null
+				&& evaluationExecutorThreads != evaluationThreads) {
+			evaluationExecutor.shutdown();
+			evaluationExecutor = null;
+		}
+		if (evaluationExecutor == null) {
+			evaluationExecutor = Executors.newFixedThreadPool(
+					evaluationThreads, new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "mcts-evaluation");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			evaluationExecutorThreads = evaluationThreads;
+		}
+		return evaluationExecutor;
+	}
+
+	private SearchBuffer getSearchBuffer() {
+		if (searchBuffer == null) {
+			searchBuffer = new SearchBuffer();
+		}
+		return searchBuffer;
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if (executor != null && executorThreads != threads) {
+			executor.shutdown();
+			executor = null;
+		}
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(threads,
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "mcts-worker");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executorThreads = threads;
+		}
+		return executor;
+	}
+
+	/**
+	 * Folds the statistics of the root (and its children) of every other tree
+	 * into the main root node, matching children by action.
+	 */
+	private void mergeRoots(List<N> roots) {
+		StatisticsNode master = (StatisticsNode) rootNode;
+		List<StatisticsNode> masterChildren = master.getChildren();
+		for (int i = 1; i < roots.size(); i++) {
+			StatisticsNode other = (StatisticsNode) roots.get(i);
+			master.getStatistics().add(other.getStatistics());
+
+			List<StatisticsNode> otherChildren = other.getChildren();
+			if (otherChildren == null || masterChildren == null) {
+				continue;
+			}
+			for (StatisticsNode otherChild : otherChildren) {
+				for (StatisticsNode child : masterChildren) {
+					if (child.getAction() == otherChild.getAction()) {
+						child.getStatistics().add(otherChild.getStatistics());
+						break;
+					}
+				}
+			}
+		}
 	}
 
 	public N getHighestScoringChild(N node) {
@@ -200,9 +789,80 @@ public class MCTS<N extends MCTSNode> {
 		return getHighestScoringChild(rootNode);
 	}
 
-	private boolean playOneSequence(N rootNode) {
+	@SuppressWarnings("unchecked")
+	private boolean playOneSequence(N rootNode, SearchBuffer buffer,
+			boolean virtualLoss) {
 		// System.err.println("playing one sequence");
-		List<N> nodes = new ArrayList<N>();
+		List<N> nodes = buffer.nodes;
+		SearchMetrics.Recorder recorder = buffer.recorder;
+		long start = recorder == null ? 0 : System.nanoTime();
+		N node = selectLeaf(rootNode, nodes, virtualLoss);
+		long selected = recorder == null ? 0 : System.nanoTime();
+		long evaluated;
+
+		boolean runDefaultPolicy = !node.canBeEvaluated()
+				&& node.isFirstTime() && enableDefaultPolicy;
+
+		if (backpropagator instanceof PrimitiveBackpropagator) {
+			double[] reward = buffer.getReward(node.getGameTotalGamePlayers());
+			if (runDefaultPolicy) {
+				node.evaluateDefaultPolicy(reward);
+				node.setFirstTime(false);
+			} else {
+				node.evaluate(reward);
+			}
+			evaluated = recorder == null ? 0 : System.nanoTime();
+			((PrimitiveBackpropagator<N>) backpropagator).backpropagate(nodes,
+					reward);
+		} else {
+			List<Double> reward = null;
+			if (runDefaultPolicy) {
+
+				reward = node.evaluateDefaultPolicy();
+				node.setFirstTime(false);
+
+			} else {
+				reward = node.evaluate();
+			}
+			evaluated = recorder == null ? 0 : System.nanoTime();
+
+			backpropagator.backpropagate(nodes, reward);
+		}
+
+		if (virtualLoss) {
+			removeVirtualLoss(nodes);
+		}
+
+		if (recorder != null) {
+			recorder.playout(nodes.size() - 1, selected - start, evaluated
+					- selected, System.nanoTime() - evaluated);
+		}
+
+		return false;
+
+	}
+
+	private void removeVirtualLoss(List<N> nodes) {
+		for (int i = 1; i < nodes.size(); i++) {
+			nodes.get(i).removeVirtualLoss();
+		}
+	}
+
+	/**
+	 * Walks the tree policy from the root without evaluating or
+	 * backpropagating, for searchers that evaluate the leaf themselves.
+	 */
+	protected N selectLeaf(List<N> nodes) {
+		rootNode.init();
+		return selectLeaf(rootNode, nodes, false);
+	}
+
+	/**
+	 * Walks the tree policy from the root, filling {@code nodes} with the
+	 * path, and returns the node to evaluate.
+	 */
+	private N selectLeaf(N rootNode, List<N> nodes, boolean virtualLoss) {
+		nodes.clear();
 		nodes.add(rootNode);
 
 		N node = rootNode;
@@ -215,17 +875,7 @@ public class MCTS<N extends MCTSNode> {
 
 			
 			if (vis == null) {
-				vis = new Visualiser();
-				vis.init();
-				 MCTSCell child = new MCTSCell((StatisticsNode) rootNode);
-				// top level node
-				System.out.println("Initialising Visualitation Graph");
-				try {
-					vis.addNode(null, child, "edge");
-				} catch (Exception e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
+				initVisualiser();
 			}
 		}
 		
@@ -234,7 +884,14 @@ public class MCTS<N extends MCTSNode> {
 		for (int depth = 0;; depth++) {
 			// System.err.println(depth + "inside UCT");
 
-			node = descend(nodes.get(depth));
+			N current = nodes.get(depth);
+			// counted by the searcher that generates them, so that nodes
+			// expanded by racing searchers are only counted once
+			nodeCount.addAndGet(current.expandChildren());
+			if (transpositionTable != null) {
+				resolveTranspositions((StatisticsNode) current);
+			}
+			node = descend(current);
 			if (node == null) {
 				// We have found a null node, this should never happen
 				throw new RuntimeException("Found a null node at depth "
@@ -242,6 +899,9 @@ public class MCTS<N extends MCTSNode> {
 			}
 
 			nodes.add(node);
+			if (virtualLoss) {
+				node.addVirtualLoss();
+			}
 
 			if (getVisualisation()) {
 			
@@ -256,6 +916,12 @@ public class MCTS<N extends MCTSNode> {
 				break;
 			}
 
+			// the leaf of a batch in flight is being evaluated on another
+			// thread; expanding it now would race with that
+			if (node.isPendingEvaluation()) {
+				break;
+			}
+
 			if (!node.canBeEvaluated() && enableDefaultPolicy
 					&& node.isFirstTime()) {
 				// System.out.println(node.canBeEvaluated() + " " +
@@ -269,20 +935,49 @@ public class MCTS<N extends MCTSNode> {
 				break;
 			}
 		}
-		List<Double> reward = null;
-		if (!node.canBeEvaluated() && node.isFirstTime() && enableDefaultPolicy) {
-
-			reward = node.evaluateDefaultPolicy();
-			node.setFirstTime(false);
+		return node;
+	}
 
-		} else {
-			reward = node.evaluate();
+	/**
+	 * Opens the visualiser with the root node in it. Unless a handler has
+	 * been set, the tree is drawn by an {@link AsyncVisualisationHandler}, so
+	 * that search does not wait for the graph.
+	 */
+	private synchronized void initVisualiser() {
+		if (vis != null) {
+			return;
 		}
+		if (visualisationHandler == null) {
+			visualisationHandler = new AsyncVisualisationHandler<N>();
+		}
+		Visualiser visualiser = new Visualiser();
+		visualiser.init();
+		MCTSCell child = new MCTSCell((StatisticsNode) rootNode);
+		// top level node
+		System.out.println("Initialising Visualitation Graph");
+		try {
+			visualiser.addNode(null, child, "edge");
+		} catch (Exception e) {
+			// TODO Auto-generated catch block
+			e.printStackTrace();
+		}
+		vis = visualiser;
+	}
 
-		backpropagator.backpropagate(nodes, reward);
-
-		return false;
-
+	private void resolveTranspositions(StatisticsNode node) {
+		if (node.isTranspositionsResolved()) {
+			return;
+		}
+		for (StatisticsNode child : node.getChildren()) {
+			if (child instanceof Transposable) {
+				StatisticsNode canonical = transpositionTable.lookup(
+						((Transposable) child).getStateHash(), child);
+				if (canonical != child) {
+					child.transpose(canonical);
+				}
+			}
+		}
+		node.setTranspositionsResolved(true);
 	}
 
 	@SuppressWarnings("unused")
@@ -303,4 +998,56 @@ public class MCTS<N extends MCTSNode> {
 
 	}
 
+	/**
+	 * Paths, leaves and reward rows of one batch in the pipeline, reused from
+	 * batch to batch.
+	 */
+	private class Batch {
+		final List<List<N>> paths;
+		final List<N> leaves;
+		final boolean[] defaultPolicy;
+		final double[][] rewards;
+		final long[] selectionNanos;
+		int size;
+
+		Batch(int capacity) {
+			paths = new ArrayList<List<N>>(capacity);
+			for (int i = 0; i < capacity; i++) {
+				paths.add(new ArrayList<N>());
+			}
+			leaves = new ArrayList<N>(capacity);
+			defaultPolicy = new boolean[capacity];
+			rewards = new double[capacity][];
+			selectionNanos = new long[capacity];
+		}
+	}
+
+	/**
+	 * Scratch space of one searcher (thread), reused across simulations so
+	 * that playing a sequence does not allocate.
+	 */
+	private class SearchBuffer {
+		final List<N> nodes = new ArrayList<N>();
+		private double[] reward = new double[0];
+		SearchMetrics.Recorder recorder;
+
+		void startRecording(SearchMetrics metrics) {
+			recorder = metrics == null ? null : metrics.newRecorder();
+		}
+
+		void stopRecording() {
+			if (recorder != null) {
+				recorder.flush();
+				recorder = null;
+			}
+		}
+
+		double[] getReward(int players) {
+			if (reward.length < players) {
+				reward = new double[players];
+			}
+			return reward;
+		}
+	}
+
 }
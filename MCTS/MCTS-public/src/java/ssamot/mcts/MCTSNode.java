@@ -22,9 +22,14 @@ package ssamot.mcts;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public abstract class MCTSNode<T> {
 
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<MCTSNode> VIRTUAL_LOSS = AtomicIntegerFieldUpdater
+			.newUpdater(MCTSNode.class, "virtualLoss");
+
 	public enum NodeType {
 		STOCHASTIC, DETERMINISTIC, ADVERSARIAL
 	};
@@ -34,12 +39,24 @@ public abstract class MCTSNode<T> {
 	private NodeType type = NodeType.DETERMINISTIC;
 
 	protected List<T> children;
-	protected List<Double> scores;
+	// built aside and published whole, see evaluate()
+	protected volatile List<Double> scores;
 
 	private double probability = 0;
 
 	protected boolean autoGenerateChildren;
 
+	// set once generateChildren() has finished, so that searchers sharing
+	// the tree never see a half-filled children list
+	private volatile boolean childrenGenerated = false;
+
+	// number of searchers currently below this node (tree parallelisation)
+	private volatile int virtualLoss = 0;
+
+	// number of times this node is a leaf of a batch not yet backpropagated;
+	// only touched by the thread running the batched search
+	private int pendingEvaluations = 0;
+
 	public double getProbability() {
 		return probability;
 	}
@@ -49,13 +66,57 @@ public abstract class MCTSNode<T> {
 	}
 
 	public List<T> getChildren() {
-		if (children == null && !isLeaf() && autoGenerateChildren) {
-			children = new ArrayList<T>();
-			generateChildren();
-		}
+		expandChildren();
 		return children;
 	}
 
+	/**
+	 * Generates the children, unless they exist already.
+	 * 
+	 * @return the number of children generated by this call; of searchers
+	 *         racing to expand a node only one sees them
+	 */
+	int expandChildren() {
+		if (!childrenGenerated && autoGenerateChildren && !isLeaf()) {
+			synchronized (this) {
+				int generated = 0;
+				if (children == null) {
+					children = new ArrayList<T>();
+					generateChildren();
+					generated = children.size();
+				}
+				childrenGenerated = true;
+				return generated;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Whether the children of this node exist already, without generating
+	 * them.
+	 */
+	public boolean isExpanded() {
+		return childrenGenerated || children != null;
+	}
+
+	/**
+	 * Uses the children of {@code other}, which must represent the same
+	 * state, instead of generating our own.
+	 */
+	protected void shareChildren(MCTSNode<T> other) {
+		if (other.isLeaf()) {
+			return;
+		}
+		List<T> shared = other.getChildren();
+		if (shared != null) {
+			synchronized (this) {
+				children = shared;
+				childrenGenerated = true;
+			}
+		}
+	}
+
 	public abstract int getAction();
 
 	public abstract int getRewardId();
@@ -76,15 +137,44 @@ public abstract class MCTSNode<T> {
 	public abstract int getGameTotalGamePlayers();
 
 	public List<Double> evaluate() {
-		if (scores == null) {
-			scores = new ArrayList<Double>(getGameTotalGamePlayers());
-			scores.add(0.0);
+		List<Double> cached = scores;
+		if (cached == null) {
+			// searchers racing for the same leaf may each build the list,
+			// but none sees it before it is complete
+			cached = new ArrayList<Double>(getGameTotalGamePlayers());
+			cached.add(0.0);
 			for (int i = 1; i < getGameTotalGamePlayers(); i++) {
-				scores.add(evaluate(i));
+				cached.add(evaluate(i));
 			}
+			scores = cached;
+		}
+
+		return cached;
+	}
+
+	/**
+	 * Writes the score of every player into {@code out}, without boxing. The
+	 * default goes through {@link #evaluate()}, so its cache and any override
+	 * of it still apply.
+	 */
+	public void evaluate(double[] out) {
+		List<Double> cached = evaluate();
+		for (int i = 0; i < cached.size(); i++) {
+			out[i] = cached.get(i);
 		}
+	}
 
-		return scores;
+	/**
+	 * Runs the default policy for every player and writes the scores into
+	 * {@code out}. The default goes through {@link #evaluateDefaultPolicy()},
+	 * so any override of it still applies; nodes that want to avoid the
+	 * boxing override this instead.
+	 */
+	public void evaluateDefaultPolicy(double[] out) {
+		List<Double> dScores = evaluateDefaultPolicy();
+		for (int i = 0; i < dScores.size(); i++) {
+			out[i] = dScores.get(i);
+		}
 	}
 
 	public List<Double> evaluateDefaultPolicy() {
@@ -110,9 +200,9 @@ public abstract class MCTSNode<T> {
 	}
 
 	public void prune() {
-		// clear all the children and call the garbage collector
+		// clear all the children, the collector reclaims them when it sees fit
 		children = null;
-		System.gc();
+		childrenGenerated = false;
 	}
 
 	public void reset() {
@@ -131,4 +221,34 @@ public abstract class MCTSNode<T> {
 		
 	}
 
+	public int getVirtualLoss() {
+		return virtualLoss;
+	}
+
+	@SuppressWarnings("unchecked")
+	public void addVirtualLoss() {
+		VIRTUAL_LOSS.incrementAndGet(this);
+	}
+
+	@SuppressWarnings("unchecked")
+	public void removeVirtualLoss() {
+		VIRTUAL_LOSS.decrementAndGet(this);
+	}
+
+	/**
+	 * Whether this node is the leaf of a batch still being evaluated, in
+	 * which case the batched search must not expand it.
+	 */
+	boolean isPendingEvaluation() {
+		return pendingEvaluations > 0;
+	}
+
+	void addPendingEvaluation() {
+		pendingEvaluations++;
+	}
+
+	void removePendingEvaluation() {
+		pendingEvaluations--;
+	}
+
 }
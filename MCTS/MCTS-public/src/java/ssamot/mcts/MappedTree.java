@@ -0,0 +1,159 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Read-only view of a tree snapshot (see {@link TreeSnapshot}). Nodes are
+ * addressed by int ids as in {@link TreeArena}; records are decoded on
+ * every call straight from the buffer, which for an uncompressed snapshot
+ * is the memory-mapped file itself.
+ */
+public class MappedTree {
+
+	public static final int ROOT = 0;
+	public static final int NOT_FOUND = -1;
+
+	private static final int CHILD_COUNT = 4;
+	private static final int FIRST_CHILD = 8;
+	private static final int VISITS = 12;
+	private static final int VALUE_SUM = 20;
+	private static final int VALUE_SUM_SQ = 28;
+
+	private final ByteBuffer table;
+	private final int size;
+
+	MappedTree(ByteBuffer table, int size) {
+		this.table = table;
+		this.size = size;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private int offset(int node) {
+		if (node < 0 || node >= size) {
+			throw new IndexOutOfBoundsException("Node " + node + " of "
+					+ size);
+		}
+		return node * TreeSnapshot.RECORD_SIZE;
+	}
+
+	public int getAction(int node) {
+		return table.getInt(offset(node));
+	}
+
+	public int getChildCount(int node) {
+		return table.getInt(offset(node) + CHILD_COUNT);
+	}
+
+	public int getFirstChild(int node) {
+		return table.getInt(offset(node) + FIRST_CHILD);
+	}
+
+	public long getVisits(int node) {
+		return table.getLong(offset(node) + VISITS);
+	}
+
+	public double getValueSum(int node) {
+		return table.getDouble(offset(node) + VALUE_SUM);
+	}
+
+	public double getValueSumSq(int node) {
+		return table.getDouble(offset(node) + VALUE_SUM_SQ);
+	}
+
+	public double getMean(int node) {
+		return getValueSum(node) / getVisits(node);
+	}
+
+	/**
+	 * The child of {@code node} reached by {@code action}, or
+	 * {@link #NOT_FOUND}.
+	 */
+	public int findChild(int node, int action) {
+		int first = getFirstChild(node);
+		int count = getChildCount(node);
+		for (int i = 0; i < count; i++) {
+			if (getAction(first + i) == action) {
+				return first + i;
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Follows a line of play from the root, as when probing an opening book.
+	 * 
+	 * @return the node reached, or {@link #NOT_FOUND}
+	 */
+	public int find(int... actions) {
+		int node = ROOT;
+		for (int i = 0; i < actions.length && node != NOT_FOUND; i++) {
+			node = findChild(node, actions[i]);
+		}
+		return node;
+	}
+
+	/**
+	 * The most visited child, or {@link #NOT_FOUND} for a leaf.
+	 */
+	public int getMostVisitedChild(int node) {
+		int first = getFirstChild(node);
+		int count = getChildCount(node);
+		int best = NOT_FOUND;
+		long bestVisits = -1;
+		for (int i = 0; i < count; i++) {
+			long visits = getVisits(first + i);
+			if (visits > bestVisits) {
+				bestVisits = visits;
+				best = first + i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Adds the stored statistics of {@code node} and its subtree to a live
+	 * tree, matching children by action. Children of {@code target} are
+	 * generated where the snapshot has them.
+	 */
+	public void restore(int node, StatisticsNode target) {
+		target.getStatistics().add(getVisits(node), getValueSum(node),
+				getValueSumSq(node));
+		if (getChildCount(node) == 0 || target.isLeaf()) {
+			return;
+		}
+		List<StatisticsNode> children = target.getChildren();
+		if (children == null) {
+			return;
+		}
+		for (StatisticsNode child : children) {
+			int stored = findChild(node, child.getAction());
+			if (stored != NOT_FOUND) {
+				restore(stored, child);
+			}
+		}
+	}
+
+}
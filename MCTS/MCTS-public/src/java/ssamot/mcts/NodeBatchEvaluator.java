@@ -0,0 +1,45 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.util.List;
+
+/**
+ * Evaluates a batch one leaf at a time through the nodes' own evaluate() and
+ * evaluateDefaultPolicy(), for node types without a real batch evaluator.
+ * Each leaf is scored the way serial search would score it.
+ */
+public class NodeBatchEvaluator<N extends MCTSNode> implements
+		BatchEvaluator<N> {
+
+	@Override
+	public void evaluateBatch(List<N> leaves, boolean[] defaultPolicy,
+			double[][] out) {
+		for (int i = 0; i < leaves.size(); i++) {
+			N leaf = leaves.get(i);
+			if (defaultPolicy[i]) {
+				leaf.evaluateDefaultPolicy(out[i]);
+			} else {
+				leaf.evaluate(out[i]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Visit count and reward sums of a tree node, kept in three longs that are
+ * updated with CAS so that any number of threads can back up through the
+ * same node without locking and without losing updates.
+ * 
+ * Only what the UCB selectors need is kept: no min/max, no stored values, and
+ * mean and variance are computed on demand instead of being cached. A reader
+ * racing with a writer may see the count and the sums out of step, so the
+ * mean and variance it computes can be briefly off; no update is ever lost.
+ */
+public class NodeStatistics implements Serializable {
+
+	private static final long serialVersionUID = 3150870498785916012L;
+
+	private static final AtomicLongFieldUpdater<NodeStatistics> N = AtomicLongFieldUpdater
+			.newUpdater(NodeStatistics.class, "n");
+	private static final AtomicLongFieldUpdater<NodeStatistics> SUM = AtomicLongFieldUpdater
+			.newUpdater(NodeStatistics.class, "sum");
+	private static final AtomicLongFieldUpdater<NodeStatistics> SUMSQ = AtomicLongFieldUpdater
+			.newUpdater(NodeStatistics.class, "sumsq");
+
+	private volatile long n;
+	// raw bits of doubles
+	private volatile long sum;
+	private volatile long sumsq;
+
+	public void addValue(double d) {
+		// a concurrent reader may see the count and the sums out of step
+		N.incrementAndGet(this);
+		addDouble(SUM, d);
+		addDouble(SUMSQ, d * d);
+	}
+
+	public void add(NodeStatistics ss) {
+		add(ss.n, ss.getSum(), ss.getSumSq());
+	}
+
+	/**
+	 * Adds {@code n} values with the given sum and sum of squares, e.g. from
+	 * a stored tree.
+	 */
+	public void add(long n, double sum, double sumSq) {
+		N.addAndGet(this, n);
+		addDouble(SUM, sum);
+		addDouble(SUMSQ, sumSq);
+	}
+
+	private void addDouble(AtomicLongFieldUpdater<NodeStatistics> field,
+			double d) {
+		for (;;) {
+			long current = field.get(this);
+			long next = Double.doubleToRawLongBits(Double
+					.longBitsToDouble(current) + d);
+			if (field.compareAndSet(this, current, next)) {
+				return;
+			}
+		}
+	}
+
+	public void reset() {
+		n = 0;
+		sum = 0;
+		sumsq = 0;
+	}
+
+	public double getN() {
+		return n;
+	}
+
+	public double getSum() {
+		return Double.longBitsToDouble(sum);
+	}
+
+	public double getSumSq() {
+		return Double.longBitsToDouble(sumsq);
+	}
+
+	public double getMean() {
+		return getSum() / n;
+	}
+
+	public double getVariance() {
+		long count = n;
+		if (count < 2) {
+			return 0;
+		}
+		double mean = getSum() / count;
+		double num = getSumSq() - (count * mean * mean);
+		if (num < 0) {
+			// avoids tiny negative numbers possible through imprecision
+			return 0;
+		}
+		return num / (count - 1);
+	}
+
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	public String toString() {
+		return " ave = " + getMean() + "\n" + " sd  = "
+				+ getStandardDeviation() + "\n" + " sum  = " + getSum() + "\n"
+				+ " sumsq  = " + getSumSq() + "\n" + " n   = " + n;
+	}
+
+}
@@ -0,0 +1,208 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps searching the tree of an {@link MCTS} on a background thread while
+ * the opponent thinks. A typical turn is:
+ * 
+ * <pre>
+ * N best = mcts.getHighestScoringChild();
+ * mcts.advanceRoot(best);
+ * ponderer.start();
+ * // ... opponent plays
+ * ponderer.advanceRoot(opponentAction);
+ * mcts.runForMs(time);
+ * </pre>
+ * 
+ * Playouts are only kept if they went through the observed subtree; how many
+ * were is only known for nodes up to {@link #SNAPSHOT_DEPTH} plies below the
+ * pondered root, so the root may advance at most that far while pondering.
+ */
+public class Ponderer<N extends MCTSNode> {
+
+	/**
+	 * Plies below the pondered root whose visits are recorded at start().
+	 */
+	public static final int SNAPSHOT_DEPTH = 2;
+
+	private final MCTS<N> mcts;
+	private final SearchSession<N> session;
+
+	// visits of the nodes near the root when pondering started
+	private Map<MCTSNode, Double> visitsAtStart;
+
+	private long ponderedPlayouts;
+	private long keptPlayouts;
+	private long totalPonderedPlayouts;
+	private long totalKeptPlayouts;
+
+	public Ponderer(MCTS<N> mcts) {
+		this.mcts = mcts;
+		this.session = new SearchSession<N>(mcts);
+	}
+
+	public int getCheckInterval() {
+		return session.getCheckInterval();
+	}
+
+	/**
+	 * Number of simulations between checks for cancellation.
+	 */
+	public void setCheckInterval(int checkInterval) {
+		session.setCheckInterval(checkInterval);
+	}
+
+	public void start() {
+		if (session.isRunning()) {
+			throw new IllegalStateException("Already pondering");
+		}
+		visitsAtStart = new IdentityHashMap<MCTSNode, Double>();
+		snapshot(mcts.getRootNode(), SNAPSHOT_DEPTH);
+		ponderedPlayouts = 0;
+		keptPlayouts = 0;
+		session.start();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void snapshot(MCTSNode node, int depth) {
+		if (!(node instanceof StatisticsNode)) {
+			return;
+		}
+		visitsAtStart.put(node, ((StatisticsNode) node).getStatistics()
+				.getN());
+		if (depth > 0 && node.isExpanded()) {
+			for (MCTSNode child : (List<MCTSNode>) node.getChildren()) {
+				snapshot(child, depth - 1);
+			}
+		}
+	}
+
+	/**
+	 * Stops pondering, if running, and waits for the search thread.
+	 * 
+	 * @return the number of playouts pondered
+	 */
+	public long stop() {
+		if (visitsAtStart == null) {
+			return 0;
+		}
+		session.stop();
+		ponderedPlayouts = session.getIterations();
+		totalPonderedPlayouts += ponderedPlayouts;
+		return ponderedPlayouts;
+	}
+
+	public boolean isPondering() {
+		return session.isRunning();
+	}
+
+	/**
+	 * Stops pondering and re-roots the tree by following {@code actions}
+	 * from the current root through the existing children. While pondering
+	 * at most {@link #SNAPSHOT_DEPTH} actions may be given.
+	 * 
+	 * @return the number of pondered playouts kept
+	 */
+	public long advanceRoot(int... actions) {
+		stop();
+		N node = mcts.getRootNode();
+		for (int action : actions) {
+			node = findChild(node, action);
+		}
+		return advanceRoot(node);
+	}
+
+	@SuppressWarnings("unchecked")
+	private N findChild(N node, int action) {
+		if (node.isExpanded()) {
+			for (N child : (List<N>) node.getChildren()) {
+				if (child.getAction() == action) {
+					return child;
+				}
+			}
+		}
+		throw new IllegalArgumentException("No child playing " + action
+				+ " has been searched");
+	}
+
+	/**
+	 * Stops pondering and re-roots the tree at {@code observed}, which while
+	 * pondering must be at most {@link #SNAPSHOT_DEPTH} plies below the root.
+	 * 
+	 * @return the number of pondered playouts kept
+	 */
+	public long advanceRoot(N observed) {
+		stop();
+		if (visitsAtStart != null
+				&& !isNear(mcts.getRootNode(), observed, SNAPSHOT_DEPTH)) {
+			throw new IllegalArgumentException("The new root is more than "
+					+ SNAPSHOT_DEPTH + " plies below the pondered one");
+		}
+		keptPlayouts = 0;
+		if (observed instanceof StatisticsNode && visitsAtStart != null) {
+			double now = ((StatisticsNode) observed).getStatistics().getN();
+			// a node near the root missing from the snapshot was created by
+			// pondering
+			Double before = visitsAtStart.get(observed);
+			keptPlayouts = (long) (now - (before == null ? 0 : before));
+		}
+		totalKeptPlayouts += keptPlayouts;
+		visitsAtStart = null;
+		mcts.advanceRoot(observed);
+		return keptPlayouts;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean isNear(MCTSNode node, MCTSNode target, int depth) {
+		if (node == target) {
+			return true;
+		}
+		if (depth > 0 && node.isExpanded()) {
+			for (MCTSNode child : (List<MCTSNode>) node.getChildren()) {
+				if (isNear(child, target, depth - 1)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	public long getPonderedPlayouts() {
+		return ponderedPlayouts;
+	}
+
+	public long getKeptPlayouts() {
+		return keptPlayouts;
+	}
+
+	public long getTotalPonderedPlayouts() {
+		return totalPonderedPlayouts;
+	}
+
+	public long getTotalKeptPlayouts() {
+		return totalKeptPlayouts;
+	}
+
+}
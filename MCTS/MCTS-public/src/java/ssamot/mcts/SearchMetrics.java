@@ -0,0 +1,282 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and histograms of a searcher, accumulated over every search since
+ * the last {@link #reset()}.
+ * <p>
+ * Search threads do not touch the shared counters per playout: each records
+ * into its own {@link Recorder} of plain fields, which is folded in every
+ * {@value #FLUSH_INTERVAL} playouts and when the thread's search ends. A
+ * reader (e.g. over JMX) may therefore lag a running search slightly.
+ * Depths of {@value #DEPTH_BUCKETS} or more share the last histogram bucket.
+ */
+public class SearchMetrics implements SearchMetricsMXBean {
+
+	public static final int DEPTH_BUCKETS = 64;
+
+	static final int FLUSH_INTERVAL = 1024;
+
+	private final AtomicLong searches = new AtomicLong();
+	private final AtomicLong playouts = new AtomicLong();
+	private final AtomicLong searchNanos = new AtomicLong();
+	private final AtomicLong nodesAllocated = new AtomicLong();
+	private final AtomicLong selectionNanos = new AtomicLong();
+	private final AtomicLong evaluationNanos = new AtomicLong();
+	private final AtomicLong backpropagationNanos = new AtomicLong();
+	private final AtomicLong depthSum = new AtomicLong();
+	private final AtomicInteger maxDepth = new AtomicInteger();
+	private final AtomicLongArray depthHistogram = new AtomicLongArray(
+			DEPTH_BUCKETS);
+
+	private volatile int[] rootActions = new int[0];
+	private volatile double[] rootVisits = new double[0];
+
+	/**
+	 * Per-thread accumulator; not thread safe.
+	 */
+	public final class Recorder {
+		private long playouts;
+		private long selection;
+		private long evaluation;
+		private long backpropagation;
+		private long depthSum;
+		private int maxDepth;
+		private final long[] depths = new long[DEPTH_BUCKETS];
+
+		private Recorder() {
+		}
+
+		public void playout(int depth, long selectionNanos,
+				long evaluationNanos, long backpropagationNanos) {
+			playouts++;
+			selection += selectionNanos;
+			evaluation += evaluationNanos;
+			backpropagation += backpropagationNanos;
+			depthSum += depth;
+			if (depth > maxDepth) {
+				maxDepth = depth;
+			}
+			depths[Math.min(depth, DEPTH_BUCKETS - 1)]++;
+			if ((playouts & (FLUSH_INTERVAL - 1)) == 0) {
+				flush();
+			}
+		}
+
+		/**
+		 * Evaluation time not attributable to a single playout, e.g. waiting
+		 * for a batch.
+		 */
+		public void evaluation(long nanos) {
+			evaluation += nanos;
+		}
+
+		public void flush() {
+			SearchMetrics.this.playouts.addAndGet(playouts);
+			selectionNanos.addAndGet(selection);
+			evaluationNanos.addAndGet(evaluation);
+			backpropagationNanos.addAndGet(backpropagation);
+			SearchMetrics.this.depthSum.addAndGet(depthSum);
+			for (;;) {
+				int current = SearchMetrics.this.maxDepth.get();
+				if (maxDepth <= current
+						|| SearchMetrics.this.maxDepth.compareAndSet(current,
+								maxDepth)) {
+					break;
+				}
+			}
+			for (int i = 0; i < DEPTH_BUCKETS; i++) {
+				if (depths[i] != 0) {
+					depthHistogram.addAndGet(i, depths[i]);
+					depths[i] = 0;
+				}
+			}
+			playouts = 0;
+			selection = 0;
+			evaluation = 0;
+			backpropagation = 0;
+			depthSum = 0;
+		}
+	}
+
+	public Recorder newRecorder() {
+		return new Recorder();
+	}
+
+	/**
+	 * Accounts for one finished search and takes the visit distribution of
+	 * the root's children.
+	 */
+	void searchFinished(long nanos, long nodes, MCTSNode root) {
+		searches.incrementAndGet();
+		searchNanos.addAndGet(nanos);
+		nodesAllocated.addAndGet(nodes);
+		if (root instanceof StatisticsNode) {
+			List<StatisticsNode> children = ((StatisticsNode) root)
+					.getChildren();
+			int size = children == null ? 0 : children.size();
+			int[] actions = new int[size];
+			double[] visits = new double[size];
+			for (int i = 0; i < size; i++) {
+				StatisticsNode child = children.get(i);
+				actions[i] = child.getAction();
+				visits[i] = child.getStatistics().getN();
+			}
+			rootActions = actions;
+			rootVisits = visits;
+		}
+	}
+
+	/**
+	 * Registers these metrics with the platform MBean server, e.g. under
+	 * {@code "ssamot.mcts:type=SearchMetrics,name=player1"}.
+	 */
+	public ObjectName register(String objectName) {
+		try {
+			ObjectName name = new ObjectName(objectName);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.registerMBean(this, name);
+			return name;
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Cannot register "
+					+ objectName, e);
+		}
+	}
+
+	public static void unregister(ObjectName name) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Cannot unregister " + name, e);
+		}
+	}
+
+	@Override
+	public long getSearches() {
+		return searches.get();
+	}
+
+	@Override
+	public long getPlayouts() {
+		return playouts.get();
+	}
+
+	@Override
+	public double getPlayoutsPerSecond() {
+		long nanos = searchNanos.get();
+		return nanos == 0 ? 0 : playouts.get() * 1e9 / nanos;
+	}
+
+	@Override
+	public long getNodesAllocated() {
+		return nodesAllocated.get();
+	}
+
+	@Override
+	public int getMaxDepth() {
+		return maxDepth.get();
+	}
+
+	@Override
+	public double getMeanDepth() {
+		long n = playouts.get();
+		return n == 0 ? 0 : depthSum.get() / (double) n;
+	}
+
+	@Override
+	public long[] getDepthHistogram() {
+		long[] histogram = new long[DEPTH_BUCKETS];
+		for (int i = 0; i < DEPTH_BUCKETS; i++) {
+			histogram[i] = depthHistogram.get(i);
+		}
+		return histogram;
+	}
+
+	@Override
+	public double getSelectionMillis() {
+		return selectionNanos.get() / 1e6;
+	}
+
+	@Override
+	public double getEvaluationMillis() {
+		return evaluationNanos.get() / 1e6;
+	}
+
+	@Override
+	public double getBackpropagationMillis() {
+		return backpropagationNanos.get() / 1e6;
+	}
+
+	@Override
+	public double getSearchMillis() {
+		return searchNanos.get() / 1e6;
+	}
+
+	@Override
+	public int[] getRootActions() {
+		return rootActions.clone();
+	}
+
+	@Override
+	public double[] getRootVisits() {
+		return rootVisits.clone();
+	}
+
+	@Override
+	public void reset() {
+		searches.set(0);
+		playouts.set(0);
+		searchNanos.set(0);
+		nodesAllocated.set(0);
+		selectionNanos.set(0);
+		evaluationNanos.set(0);
+		backpropagationNanos.set(0);
+		depthSum.set(0);
+		maxDepth.set(0);
+		for (int i = 0; i < DEPTH_BUCKETS; i++) {
+			depthHistogram.set(i, 0);
+		}
+		rootActions = new int[0];
+		rootVisits = new double[0];
+	}
+
+	@Override
+	public String toString() {
+		return "playouts = " + getPlayouts() + " ("
+				+ Math.round(getPlayoutsPerSecond()) + "/s), nodes = "
+				+ getNodesAllocated() + ", depth = " + getMeanDepth()
+				+ " mean, " + getMaxDepth() + " max, selection = "
+				+ getSelectionMillis() + "ms, evaluation = "
+				+ getEvaluationMillis() + "ms, backpropagation = "
+				+ getBackpropagationMillis() + "ms";
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+/**
+ * What {@link SearchMetrics} exposes over JMX; times are in milliseconds.
+ */
+public interface SearchMetricsMXBean {
+
+	long getSearches();
+
+	long getPlayouts();
+
+	double getPlayoutsPerSecond();
+
+	long getNodesAllocated();
+
+	int getMaxDepth();
+
+	double getMeanDepth();
+
+	long[] getDepthHistogram();
+
+	double getSelectionMillis();
+
+	double getEvaluationMillis();
+
+	double getBackpropagationMillis();
+
+	double getSearchMillis();
+
+	int[] getRootActions();
+
+	double[] getRootVisits();
+
+	void reset();
+
+}
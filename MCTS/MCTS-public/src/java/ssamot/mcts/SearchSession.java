@@ -0,0 +1,263 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.util.List;
+
+/**
+ * Runs an {@link MCTS} search on a background thread until one of its
+ * budgets runs out or it is stopped, so that a controller can answer at a
+ * fixed deadline and look at the tree while it is still growing.
+ * 
+ * The budgets are a wall-clock time limit (measured from {@link #start()},
+ * pausing does not extend it), an iteration limit and a limit on the number
+ * of nodes generated during the session. They are checked every
+ * {@link #getCheckInterval()} simulations. For the searcher's metrics a run
+ * counts as one search, timed without its pauses.
+ */
+public class SearchSession<N extends MCTSNode> {
+
+	private final MCTS<N> mcts;
+
+	private long timeLimit = Long.MAX_VALUE;
+	private long iterationLimit = Long.MAX_VALUE;
+	private long nodeLimit = Long.MAX_VALUE;
+	private int checkInterval = 16;
+
+	private final Object lock = new Object();
+	private Thread thread;
+	private volatile boolean paused;
+	private volatile boolean stopped;
+	private volatile long iterations;
+	private volatile RuntimeException failure;
+
+	public SearchSession(MCTS<N> mcts) {
+		this.mcts = mcts;
+	}
+
+	public MCTS<N> getMCTS() {
+		return mcts;
+	}
+
+	public long getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * @param timeLimit
+	 *            in ms
+	 */
+	public void setTimeLimit(long timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	public long getIterationLimit() {
+		return iterationLimit;
+	}
+
+	public void setIterationLimit(long iterationLimit) {
+		this.iterationLimit = iterationLimit;
+	}
+
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+
+	public int getCheckInterval() {
+		return checkInterval;
+	}
+
+	public void setCheckInterval(int checkInterval) {
+		if (checkInterval < 1) {
+			throw new IllegalArgumentException(
+					"Check interval must be positive, got " + checkInterval);
+		}
+		this.checkInterval = checkInterval;
+	}
+
+	public void start() {
+		synchronized (lock) {
+			if (thread != null && thread.isAlive()) {
+				throw new IllegalStateException("Session is already running");
+			}
+			paused = false;
+			stopped = false;
+			iterations = 0;
+			failure = null;
+
+			final long deadline = deadline(System.nanoTime());
+			final long startNodes = mcts.getNodeCount();
+			thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					search(deadline, startNodes);
+				}
+			}, "mcts-session");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	private long deadline(long now) {
+		if (timeLimit >= Long.MAX_VALUE / 1000000) {
+			return Long.MAX_VALUE;
+		}
+		return now + timeLimit * 1000000;
+	}
+
+	private void search(long deadline, long startNodes) {
+		try {
+			long nanos = run(deadline, startNodes);
+			mcts.searchFinished(nanos, mcts.getNodeCount() - startNodes);
+		} catch (InterruptedException e) {
+			// stopped
+		} catch (RuntimeException e) {
+			failure = e;
+		} finally {
+			synchronized (lock) {
+				stopped = true;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * @return the time spent searching, in ns, pauses excluded
+	 */
+	private long run(long deadline, long startNodes)
+			throws InterruptedException {
+		long nanos = 0;
+		while (!stopped) {
+			synchronized (lock) {
+				// the time limit keeps running while paused
+				long left = deadline - System.nanoTime();
+				while (paused && !stopped && left > 0) {
+					lock.wait(Math.max(1, left / 1000000));
+					left = deadline - System.nanoTime();
+				}
+			}
+			if (stopped || System.nanoTime() >= deadline) {
+				break;
+			}
+
+			int batch = (int) Math.min(checkInterval, iterationLimit
+					- iterations);
+			if (batch <= 0) {
+				break;
+			}
+			long start = System.nanoTime();
+			iterations += mcts.simulate(batch);
+			nanos += System.nanoTime() - start;
+
+			if (System.nanoTime() >= deadline
+					|| mcts.getNodeCount() - startNodes >= nodeLimit) {
+				break;
+			}
+		}
+		return nanos;
+	}
+
+	public void pause() {
+		paused = true;
+	}
+
+	public void resume() {
+		synchronized (lock) {
+			paused = false;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Stops the search and waits for the current batch of simulations to
+	 * finish.
+	 */
+	public void stop() {
+		synchronized (lock) {
+			stopped = true;
+			lock.notifyAll();
+		}
+		awaitCompletion();
+	}
+
+	/**
+	 * Waits until a budget runs out or the session is stopped.
+	 */
+	public void awaitCompletion() {
+		Thread searchThread;
+		synchronized (lock) {
+			searchThread = thread;
+		}
+		if (searchThread == null) {
+			return;
+		}
+		try {
+			searchThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	public boolean isRunning() {
+		return !stopped && thread != null && thread.isAlive();
+	}
+
+	public boolean isPaused() {
+		return paused;
+	}
+
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * The child the action selector would pick right now; safe to call while
+	 * the search is running.
+	 */
+	public N getHighestScoringChild() {
+		return mcts.getHighestScoringChild();
+	}
+
+	/**
+	 * Visit counts of the root's children, in the order of
+	 * {@code getRootNode().getChildren()}; empty if the root has not been
+	 * expanded or is not a StatisticsNode.
+	 */
+	public double[] getVisitDistribution() {
+		N root = mcts.getRootNode();
+		if (!(root instanceof StatisticsNode) || !root.isExpanded()) {
+			return new double[0];
+		}
+		List<StatisticsNode> children = ((StatisticsNode) root).getChildren();
+		double[] visits = new double[children.size()];
+		for (int i = 0; i < visits.length; i++) {
+			visits[i] = children.get(i).getStatistics().getN();
+		}
+		return visits;
+	}
+
+}
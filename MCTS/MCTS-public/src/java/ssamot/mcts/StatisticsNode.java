@@ -20,17 +20,31 @@
 package ssamot.mcts;
 
 
-import ssamot.utilities.SummaryStatistics;
-
 public abstract class StatisticsNode extends MCTSNode<StatisticsNode> {
 
-	protected SummaryStatistics actionStatistics;
+	protected volatile NodeStatistics actionStatistics = new NodeStatistics();
+
+	private volatile boolean transpositionsResolved = false;
 	
-	public SummaryStatistics getStatistics() {
-		if (actionStatistics == null) {
-			actionStatistics = new SummaryStatistics();
-		}
+	public NodeStatistics getStatistics() {
 		return actionStatistics;
 	}
+
+	/**
+	 * Makes this node an alias of an equivalent node: both share statistics
+	 * and, from then on, the same children.
+	 */
+	public void transpose(StatisticsNode canonical) {
+		actionStatistics = canonical.getStatistics();
+		shareChildren(canonical);
+	}
+
+	public boolean isTranspositionsResolved() {
+		return transpositionsResolved;
+	}
+
+	public void setTranspositionsResolved(boolean transpositionsResolved) {
+		this.transpositionsResolved = transpositionsResolved;
+	}
 	
 }
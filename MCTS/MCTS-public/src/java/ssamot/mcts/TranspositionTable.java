@@ -0,0 +1,198 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounded open-addressing map from state hashes to the first node seen for
+ * that state. A lookup probes a short run of slots; when the run is full the
+ * least visited entry is replaced, so frequently searched states stay in the
+ * table. Evicted nodes keep whatever they already share.
+ */
+public class TranspositionTable {
+
+	private static final int PROBE_LIMIT = 8;
+
+	private final long[] keys;
+	private final StatisticsNode[] nodes;
+	private final int mask;
+	private final int shift;
+
+	private long hits;
+	private long misses;
+	private long replacements;
+	private int size;
+
+	/**
+	 * @param capacity
+	 *            maximum number of entries, rounded up to a power of two
+	 */
+	public TranspositionTable(int capacity) {
+		if (capacity < 1 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		}
+		int tableSize = Integer.highestOneBit(capacity);
+		if (tableSize < capacity) {
+			tableSize <<= 1;
+		}
+		keys = new long[tableSize];
+		nodes = new StatisticsNode[tableSize];
+		mask = tableSize - 1;
+		shift = 64 - Integer.numberOfTrailingZeros(tableSize);
+	}
+
+	/**
+	 * Returns the node already stored for {@code hash}, or stores and returns
+	 * {@code node} if there is none.
+	 */
+	public synchronized StatisticsNode lookup(long hash, StatisticsNode node) {
+		int start = index(hash);
+		int victim = start;
+		double victimVisits = Double.POSITIVE_INFINITY;
+
+		for (int i = 0; i < PROBE_LIMIT; i++) {
+			int slot = (start + i) & mask;
+			StatisticsNode stored = nodes[slot];
+			if (stored == null) {
+				keys[slot] = hash;
+				nodes[slot] = node;
+				size++;
+				misses++;
+				return node;
+			}
+			if (keys[slot] == hash) {
+				hits++;
+				return stored;
+			}
+			double visits = stored.getStatistics().getN();
+			if (visits < victimVisits) {
+				victim = slot;
+				victimVisits = visits;
+			}
+		}
+
+		keys[victim] = hash;
+		nodes[victim] = node;
+		misses++;
+		replacements++;
+		return node;
+	}
+
+	private int index(long hash) {
+		// Fibonacci hashing, so that poorly spread hashes still get
+		// distributed over the whole table
+		return (int) ((hash * 0x9E3779B97F4A7C15L) >>> shift) & mask;
+	}
+
+	/**
+	 * Drops every entry that no node below {@code root} (inclusive) shares
+	 * statistics with, so that the table does not keep subtrees pruned on
+	 * re-rooting reachable. The counters are kept.
+	 */
+	public synchronized void retainSubtree(StatisticsNode root) {
+		Set<NodeStatistics> kept = Collections
+				.newSetFromMap(new IdentityHashMap<NodeStatistics, Boolean>());
+		Set<StatisticsNode> visited = Collections
+				.newSetFromMap(new IdentityHashMap<StatisticsNode, Boolean>());
+		List<StatisticsNode> stack = new ArrayList<StatisticsNode>();
+		stack.add(root);
+		while (!stack.isEmpty()) {
+			StatisticsNode node = stack.remove(stack.size() - 1);
+			// transpositions share their children, walk them once
+			if (visited.add(node)) {
+				kept.add(node.getStatistics());
+				if (node.isExpanded()) {
+					stack.addAll(node.getChildren());
+				}
+			}
+		}
+
+		long[] oldKeys = keys.clone();
+		StatisticsNode[] oldNodes = nodes.clone();
+		Arrays.fill(keys, 0);
+		Arrays.fill(nodes, null);
+		size = 0;
+		// inserted afresh, as removing in place would break probe runs
+		for (int i = 0; i < oldNodes.length; i++) {
+			if (oldNodes[i] != null
+					&& kept.contains(oldNodes[i].getStatistics())) {
+				insert(oldKeys[i], oldNodes[i]);
+			}
+		}
+	}
+
+	private void insert(long hash, StatisticsNode node) {
+		int start = index(hash);
+		for (int i = 0; i < PROBE_LIMIT; i++) {
+			int slot = (start + i) & mask;
+			if (nodes[slot] == null) {
+				keys[slot] = hash;
+				nodes[slot] = node;
+				size++;
+				return;
+			}
+		}
+		// no free slot left in its run: dropped, like an evicted entry
+	}
+
+	public synchronized void clear() {
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = null;
+			keys[i] = 0;
+		}
+		size = 0;
+		hits = 0;
+		misses = 0;
+		replacements = 0;
+	}
+
+	public int capacity() {
+		return nodes.length;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getReplacements() {
+		return replacements;
+	}
+
+	public String toString() {
+		return "TranspositionTable [size=" + size() + ", capacity="
+				+ capacity() + ", hits=" + getHits() + ", misses="
+				+ getMisses() + ", replacements=" + getReplacements() + "]";
+	}
+
+}
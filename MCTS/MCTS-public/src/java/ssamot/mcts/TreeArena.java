@@ -0,0 +1,173 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.util.Arrays;
+
+/**
+ * A search tree stored as parallel primitive arrays rather than as node
+ * objects. Nodes are addressed by int ids, the root is always 0, and the
+ * children of a node occupy a contiguous block of ids starting at its first
+ * child. A node costs about 30 bytes, against several hundred for a
+ * StatisticsNode with its children list, score cache and statistics object.
+ */
+public class TreeArena {
+
+	public static final int ROOT = 0;
+	public static final int NO_PARENT = -1;
+	public static final int NOT_EXPANDED = -1;
+
+	private int size;
+
+	private int[] parent;
+	private int[] firstChild;
+	private int[] childCount;
+	private int[] action;
+	private byte[] rewardId;
+	private int[] visits;
+	private double[] valueSum;
+
+	public TreeArena() {
+		this(1024);
+	}
+
+	public TreeArena(int initialCapacity) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive, got "
+					+ initialCapacity);
+		}
+		parent = new int[initialCapacity];
+		firstChild = new int[initialCapacity];
+		childCount = new int[initialCapacity];
+		action = new int[initialCapacity];
+		rewardId = new byte[initialCapacity];
+		visits = new int[initialCapacity];
+		valueSum = new double[initialCapacity];
+		clear();
+	}
+
+	/**
+	 * Drops every node and creates a fresh, unexpanded root. The arrays are
+	 * kept, so a cleared arena can be searched again without allocating.
+	 */
+	public void clear() {
+		size = 0;
+		newNode(NO_PARENT, -1, 0);
+	}
+
+	/**
+	 * Creates one child of {@code node} per action, all rewarded to
+	 * {@code childRewardId}. A count of zero marks the node as terminal.
+	 * 
+	 * @return the id of the first child
+	 */
+	public int expand(int node, int[] actions, int count, int childRewardId) {
+		if (isExpanded(node)) {
+			throw new IllegalStateException("Node " + node
+					+ " has already been expanded");
+		}
+		ensureCapacity(size + count);
+		int first = size;
+		for (int i = 0; i < count; i++) {
+			newNode(node, actions[i], childRewardId);
+		}
+		firstChild[node] = first;
+		childCount[node] = count;
+		return first;
+	}
+
+	private int newNode(int parentNode, int nodeAction, int nodeRewardId) {
+		ensureCapacity(size + 1);
+		int node = size++;
+		parent[node] = parentNode;
+		firstChild[node] = NOT_EXPANDED;
+		childCount[node] = 0;
+		action[node] = nodeAction;
+		rewardId[node] = (byte) nodeRewardId;
+		visits[node] = 0;
+		valueSum[node] = 0;
+		return node;
+	}
+
+	private void ensureCapacity(int needed) {
+		int capacity = parent.length;
+		if (needed <= capacity) {
+			return;
+		}
+		int newCapacity = Math.max(needed, capacity + (capacity >> 1));
+		parent = Arrays.copyOf(parent, newCapacity);
+		firstChild = Arrays.copyOf(firstChild, newCapacity);
+		childCount = Arrays.copyOf(childCount, newCapacity);
+		action = Arrays.copyOf(action, newCapacity);
+		rewardId = Arrays.copyOf(rewardId, newCapacity);
+		visits = Arrays.copyOf(visits, newCapacity);
+		valueSum = Arrays.copyOf(valueSum, newCapacity);
+	}
+
+	public void addValue(int node, double value) {
+		visits[node]++;
+		valueSum[node] += value;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return parent.length;
+	}
+
+	public boolean isExpanded(int node) {
+		return firstChild[node] != NOT_EXPANDED;
+	}
+
+	public int getParent(int node) {
+		return parent[node];
+	}
+
+	public int getFirstChild(int node) {
+		return firstChild[node];
+	}
+
+	public int getChildCount(int node) {
+		return childCount[node];
+	}
+
+	public int getAction(int node) {
+		return action[node];
+	}
+
+	public int getRewardId(int node) {
+		return rewardId[node];
+	}
+
+	public int getVisits(int node) {
+		return visits[node];
+	}
+
+	public double getValueSum(int node) {
+		return valueSum[node];
+	}
+
+	public double getMean(int node) {
+		return valueSum[node] / visits[node];
+	}
+
+}
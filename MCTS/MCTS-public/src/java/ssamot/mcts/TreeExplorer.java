@@ -19,134 +19,326 @@
 
 package ssamot.mcts;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import ssamot.mcts.ucb.optimisation.MCTSContinuousNode;
 
-
+/**
+ * Exact expectimax over a (generated) tree, used to measure regret: players
+ * maximise the score of {@code regretPlayer} and chance nodes average over
+ * their children by probability. A node deeper than {@code maxDepth} scores
+ * -1.
+ * <p>
+ * The tree is walked with an explicit stack, so depth is not limited by the
+ * thread's stack, and each node is evaluated once per depth (nodes reached
+ * again through transpositions are looked up). With more than one thread,
+ * the top of the tree is split into subtrees that are searched in parallel
+ * and then combined. If a DOT writer is set, the explored part of the tree
+ * is streamed to it as it is visited.
+ */
 public class TreeExplorer {
-	private Random generator = new Random();
-	private static final boolean ENABLE_DOT = true;
+
+	private int threads = 1;
+	private ExecutorService executor;
+	private int executorThreads;
+
+	private Writer dotWriter;
+	private boolean retainMemo = false;
+	private Map<StatisticsNode, Value> memo = new IdentityHashMap<StatisticsNode, Value>();
 
 	// UCT uct = new UCT();
 
 	public double expectimax(StatisticsNode node, int maxDepth, int regretPlayer) {
+		if (!retainMemo) {
+			memo.clear();
+		}
+		if (threads > 1) {
+			searchFrontier(node, maxDepth, regretPlayer);
+		}
+		return new Search(memo, regretPlayer).run(node, maxDepth);
+	}
 
-		if(maxDepth < 1) {
-			return -1;
+	/**
+	 * Expands the top of the tree breadth first until there are a few
+	 * subtrees per thread, and searches those in parallel into the memo.
+	 */
+	private void searchFrontier(StatisticsNode root, int maxDepth,
+			final int regretPlayer) {
+		List<StatisticsNode> frontier = new ArrayList<StatisticsNode>();
+		frontier.add(root);
+		int depth = maxDepth;
+		while (frontier.size() < threads * 4 && depth > 1) {
+			List<StatisticsNode> next = new ArrayList<StatisticsNode>();
+			for (StatisticsNode node : frontier) {
+				if (node.isLeaf() || memo.containsKey(node)) {
+					continue;
+				}
+				next.addAll(node.getChildren());
+			}
+			if (next.isEmpty()) {
+				return;
+			}
+			frontier = next;
+			depth--;
+		}
+		if (frontier.size() < 2) {
+			return;
 		}
-		if (ENABLE_DOT) {
 
+		final int frontierDepth = depth;
+		List<Future<Map<StatisticsNode, Value>>> results = new ArrayList<Future<Map<StatisticsNode, Value>>>();
+		for (final StatisticsNode node : frontier) {
+			results.add(getExecutor().submit(
+					new Callable<Map<StatisticsNode, Value>>() {
+						@Override
+						public Map<StatisticsNode, Value> call() {
+							Map<StatisticsNode, Value> local = new IdentityHashMap<StatisticsNode, Value>();
+							new Search(local, regretPlayer).run(node,
+									frontierDepth);
+							return local;
+						}
+					}));
+		}
+		try {
+			for (Future<Map<StatisticsNode, Value>> result : results) {
+				memo.putAll(result.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while exploring", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
 
-			String label = "";
+	public int getThreads() {
+		return threads;
+	}
 
-			//System.out.println(node.getChildren().size());
-			
-			for (StatisticsNode childNode : node.getChildren()) {
-				// System.out.println("-=====Starting random action " +
-				// node.getRewardId());
-				
-				if(childNode.getChildren() == null) {
-					return -1;
-				}
-				if (childNode.getChildren().size() == 0) {
+	/**
+	 * Searches with this many threads; nodes must then be safe to expand and
+	 * evaluate concurrently.
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread");
+		}
+		this.threads = threads;
+	}
 
-					label = "label=\""
-							+ String.format("%1.3f",
-									childNode.evaluate(regretPlayer)) + "\"";
-				} else {
-					label = "label=\""
-							+ childNode.getChildren().get(0).getRewardId()
-							+ " " + childNode.toString() + "\"";
-				}
-				System.out.println("\"" + childNode.hashCode() + "\"" + "["
-						+ label + "];");
+	/**
+	 * Streams the explored tree in DOT format to {@code dotWriter}, one
+	 * statement per line (without the surrounding digraph block); null
+	 * turns it off. The writer is not closed.
+	 */
+	public void setDotWriter(Writer dotWriter) {
+		this.dotWriter = dotWriter;
+	}
 
-				String dot = "";
+	/**
+	 * Keeps node values from one call to the next, for repeated queries on
+	 * a tree that does not change in between.
+	 */
+	public void setRetainMemo(boolean retainMemo) {
+		this.retainMemo = retainMemo;
+	}
 
-				if (childNode instanceof MCTSContinuousNode) {
-					MCTSContinuousNode ccNode = (MCTSContinuousNode) childNode;
-					dot = toDot("" + node.hashCode(),
-							"" + childNode.hashCode(), ccNode.getMin() + "-"
-									+ ccNode.getMax(), childNode.getAction());
-				}
+	public void clearMemo() {
+		memo.clear();
+	}
 
-				else {
-					dot = toDot("" + node.hashCode(),
-							"" + childNode.hashCode(),
-							childNode.getProbability(), childNode.getAction());
-				}
-				System.out.println(dot);
+	/**
+	 * Number of nodes whose value is memoised.
+	 */
+	public int getMemoSize() {
+		return memo.size();
+	}
 
+	private synchronized ExecutorService getExecutor() {
+		if (executor != null && executorThreads != threads) {
+			executor.shutdown();
+			executor = null;
+		}
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(threads,
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "tree-explorer");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executorThreads = threads;
+		}
+		return executor;
+	}
+
+	private void writeDot(String line) {
+		synchronized (dotWriter) {
+			try {
+				dotWriter.write(line);
+				dotWriter.write('\n');
+			} catch (IOException e) {
+				throw new RuntimeException(e);
 			}
 		}
-		// }
-		double a = -1;
+	}
 
-		if (node.isLeaf()) {
+	private void writeEdges(StatisticsNode node, List<StatisticsNode> children) {
+		for (StatisticsNode childNode : children) {
+			String dot;
+			if (childNode instanceof MCTSContinuousNode) {
+				MCTSContinuousNode ccNode = (MCTSContinuousNode) childNode;
+				dot = toDot("" + node.hashCode(), "" + childNode.hashCode(),
+						ccNode.getMin() + "-" + ccNode.getMax(),
+						childNode.getAction());
+			} else {
+				dot = toDot("" + node.hashCode(), "" + childNode.hashCode(),
+						childNode.getProbability(), childNode.getAction());
+			}
+			writeDot(dot);
+		}
+	}
 
-			double score = node.evaluate(regretPlayer);
+	/**
+	 * Value of a node, for the depth it was searched to.
+	 */
+	private static class Value {
+		final int depth;
+		final double value;
 
-			// System.out.println("score=" + score);
-			// System.out.println(maxDepth + " " + score);
-			return score;
+		Value(int depth, double value) {
+			this.depth = depth;
+			this.value = value;
 		}
+	}
 
-	
-
-		if (node.getChildren().get(0).getType() != MCTSNode.NodeType.STOCHASTIC) {
+	/**
+	 * A node on the work stack, with the children seen so far folded into
+	 * {@code value}.
+	 */
+	private static class Frame {
+		StatisticsNode node;
+		int depth;
+		List<StatisticsNode> children;
+		boolean chance;
+		int next;
+		double value;
+	}
 
-			a = Double.NEGATIVE_INFINITY;
+	/**
+	 * One depth-first walk; not thread-safe, each thread runs its own.
+	 */
+	private class Search {
+		private final Map<StatisticsNode, Value> memo;
+		private final int regretPlayer;
+		private final ArrayDeque<Frame> stack = new ArrayDeque<Frame>();
+		private final ArrayDeque<Frame> spare = new ArrayDeque<Frame>();
+
+		Search(Map<StatisticsNode, Value> memo, int regretPlayer) {
+			this.memo = memo;
+			this.regretPlayer = regretPlayer;
+		}
 
-			List<StatisticsNode> children = node.getChildren();
-			int[] order = new int[children.size()];
-			for (int i = 0; i < children.size(); i++) {
-				order[i] = i;
+		double run(StatisticsNode root, int maxDepth) {
+			double result = 0;
+			Double value = enter(root, maxDepth);
+			if (value != null) {
+				return value;
 			}
-			// System.out.println(node.getChildren().get(0).getRewardId());
-			// shuffle(order);
-			// System.out.println(Arrays.toString(order));
-			for (int i = 0; i < order.length; i++) {
-				// System.out.println("-=====Starting player actions");
-				StatisticsNode childNode = children.get(order[i]);
-				double score = expectimax(childNode, maxDepth - 1, regretPlayer);
-
-				if (score > a) {
-					a = score;
+			while (!stack.isEmpty()) {
+				Frame frame = stack.peek();
+				if (frame.next < frame.children.size()) {
+					StatisticsNode child = frame.children.get(frame.next);
+					value = enter(child, frame.depth - 1);
+					if (value != null) {
+						fold(frame, value);
+					}
+					continue;
 				}
-				// childNode = null;
-			}
 
+				stack.pop();
+				memo.put(frame.node, new Value(frame.depth, frame.value));
+				if (dotWriter != null) {
+					writeDot(label(frame.node, frame.value));
+				}
+				if (stack.isEmpty()) {
+					result = frame.value;
+				} else {
+					fold(stack.peek(), frame.value);
+				}
+				frame.node = null;
+				frame.children = null;
+				spare.push(frame);
+			}
+			return result;
 		}
 
-		else {
-			a = 0;
-
-			List<StatisticsNode> children = node.getChildren();
-			// int[] order = new int[children.size()];
-			// for (int i = 0; i < children.size(); i++) {
-			// order[i] = i;
-			// }
-
-			// shuffle(order);
-			for (int i = 0; i < children.size(); i++) {
-				StatisticsNode childNode = children.get(i);
-				double score = childNode.getProbability()
-						* expectimax(childNode, maxDepth - 1, regretPlayer);
-				a += score;
+		/**
+		 * Scores a node directly if it can be, or pushes a frame for it.
+		 * 
+		 * @return the score, or null if a frame was pushed
+		 */
+		private Double enter(StatisticsNode node, int depth) {
+			if (depth < 1) {
+				return -1.0;
+			}
+			Value known = memo.get(node);
+			if (known != null && known.depth == depth) {
+				return known.value;
+			}
+			if (node.isLeaf()) {
+				double score = node.evaluate(regretPlayer);
+				memo.put(node, new Value(depth, score));
+				if (dotWriter != null) {
+					writeDot(label(node, score));
+				}
+				return score;
+			}
 
-				// childNode = null;
+			Frame frame = spare.isEmpty() ? new Frame() : spare.pop();
+			frame.node = node;
+			frame.depth = depth;
+			frame.children = node.getChildren();
+			frame.chance = frame.children.get(0).getType() == MCTSNode.NodeType.STOCHASTIC;
+			frame.next = 0;
+			frame.value = frame.chance ? 0 : Double.NEGATIVE_INFINITY;
+			stack.push(frame);
+			if (dotWriter != null) {
+				writeEdges(node, frame.children);
 			}
+			return null;
+		}
 
+		private void fold(Frame frame, double childValue) {
+			if (frame.chance) {
+				frame.value += frame.children.get(frame.next).getProbability()
+						* childValue;
+			} else if (childValue > frame.value) {
+				frame.value = childValue;
+			}
+			frame.next++;
 		}
 
-		// node = null;
-		return a;
+		private String label(StatisticsNode node, double value) {
+			return "\"" + node.hashCode() + "\"" + "[label=\""
+					+ String.format("%1.3f", value) + "\"];";
+		}
 	}
 
-	
-
 	public static String toDot(String father, String child, double probability,
 			int action) {
 		String label = "label=\"" + "a:" + action + ",p:"
@@ -0,0 +1,227 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Writes the expanded part of a StatisticsNode tree as a flat node table
+ * and opens such tables again as a {@link MappedTree}.
+ * <p>
+ * The file is a 16 byte header (magic, version, flags, node count) followed
+ * by one fixed-size record per node in breadth-first order: action, child
+ * count, index of the first child, visits, value sum and sum of squares.
+ * The children of a node are therefore contiguous, and the root is node 0.
+ * Uncompressed files are memory-mapped on opening, so nothing is read until
+ * it is queried; compressed files (deflate at its fastest setting) are
+ * inflated into memory first.
+ */
+public final class TreeSnapshot {
+
+	static final int MAGIC = 0x4d435453; // "MCTS"
+	static final int VERSION = 1;
+	static final int FLAG_COMPRESSED = 1;
+	static final int HEADER_SIZE = 16;
+	static final int RECORD_SIZE = 4 + 4 + 4 + 8 + 8 + 8;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private TreeSnapshot() {
+	}
+
+	/**
+	 * Streams the tree under {@code root} to {@code file}. Only children that
+	 * have already been generated are written; nothing is expanded.
+	 * 
+	 * @return the number of nodes written
+	 */
+	public static int write(StatisticsNode root, File file, boolean compress)
+			throws IOException {
+		int nodes = count(root);
+		OutputStream stream = new FileOutputStream(file);
+		// a Deflater handed to the stream is not ended by it; end it here so
+		// that its native memory does not wait for the collector
+		Deflater compressor = compress ? new Deflater(Deflater.BEST_SPEED)
+				: null;
+		try {
+			Output header = new Output(stream, HEADER_SIZE);
+			header.writeInt(MAGIC);
+			header.writeInt(VERSION);
+			header.writeInt(compress ? FLAG_COMPRESSED : 0);
+			header.writeInt(nodes);
+			header.flush();
+
+			DeflaterOutputStream deflater = null;
+			if (compress) {
+				deflater = new DeflaterOutputStream(stream, compressor,
+						BUFFER_SIZE);
+			}
+			Output output = new Output(compress ? deflater : stream,
+					BUFFER_SIZE);
+			writeNodes(root, output);
+			output.flush();
+			if (deflater != null) {
+				deflater.finish();
+			}
+		} finally {
+			try {
+				stream.close();
+			} finally {
+				if (compressor != null) {
+					compressor.end();
+				}
+			}
+		}
+		return nodes;
+	}
+
+	private static void writeNodes(StatisticsNode root, Output output) {
+		ArrayDeque<StatisticsNode> queue = new ArrayDeque<StatisticsNode>();
+		queue.add(root);
+		// index the next child block will start at
+		int next = 1;
+		while (!queue.isEmpty()) {
+			StatisticsNode node = queue.poll();
+			List<StatisticsNode> children = expandedChildren(node);
+			int childCount = children == null ? 0 : children.size();
+			NodeStatistics statistics = node.getStatistics();
+
+			output.writeInt(node.getAction());
+			output.writeInt(childCount);
+			output.writeInt(childCount == 0 ? -1 : next);
+			output.writeLong((long) statistics.getN());
+			output.writeDouble(statistics.getSum());
+			output.writeDouble(statistics.getSumSq());
+
+			if (childCount > 0) {
+				queue.addAll(children);
+				next += childCount;
+			}
+		}
+	}
+
+	private static int count(StatisticsNode root) {
+		ArrayDeque<StatisticsNode> stack = new ArrayDeque<StatisticsNode>();
+		stack.push(root);
+		int count = 0;
+		while (!stack.isEmpty()) {
+			StatisticsNode node = stack.pop();
+			count++;
+			List<StatisticsNode> children = expandedChildren(node);
+			if (children != null) {
+				for (StatisticsNode child : children) {
+					stack.push(child);
+				}
+			}
+		}
+		return count;
+	}
+
+	private static List<StatisticsNode> expandedChildren(StatisticsNode node) {
+		return node.isExpanded() ? node.getChildren() : null;
+	}
+
+	/**
+	 * Opens a snapshot written by {@link #write}.
+	 */
+	public static MappedTree open(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException("Truncated snapshot " + file);
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException(file + " is not a tree snapshot");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported snapshot version "
+						+ version);
+			}
+			int flags = header.getInt();
+			int nodes = header.getInt();
+			long size = (long) nodes * RECORD_SIZE;
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Snapshot of " + nodes
+						+ " nodes is too large to map");
+			}
+
+			if ((flags & FLAG_COMPRESSED) == 0) {
+				if (channel.size() < HEADER_SIZE + size) {
+					throw new IOException("Truncated snapshot " + file);
+				}
+				return new MappedTree(channel.map(
+						FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size),
+						nodes);
+			}
+			return new MappedTree(inflate(file, (int) size), nodes);
+		} finally {
+			// a mapping stays valid after its channel is closed
+			raf.close();
+		}
+	}
+
+	private static ByteBuffer inflate(File file, int size) throws IOException {
+		InputStream stream = new FileInputStream(file);
+		try {
+			long skipped = 0;
+			while (skipped < HEADER_SIZE) {
+				skipped += stream.skip(HEADER_SIZE - skipped);
+			}
+			// closing it ends its inflater and closes the file
+			stream = new InflaterInputStream(stream);
+			Input input = new Input(stream, BUFFER_SIZE);
+			byte[] table = new byte[size];
+			int read = 0;
+			while (read < size) {
+				int count = input.read(table, read, size - read);
+				if (count < 0) {
+					throw new IOException("Truncated snapshot " + file);
+				}
+				read += count;
+			}
+			return ByteBuffer.wrap(table);
+		} finally {
+			stream.close();
+		}
+	}
+
+}
@@ -23,7 +23,7 @@ import java.util.List;
 
 import ssamot.mcts.selectors.exp3.EXP3Node;
 
-public class EXP3Backpropagator<T extends EXP3Node>implements Backpropagator<T> {
+public class EXP3Backpropagator<T extends EXP3Node>implements PrimitiveBackpropagator<T> {
 
 	@Override
 	public void backpropagate(List<T> nodes, List<Double> reward) {
@@ -45,4 +45,19 @@ public class EXP3Backpropagator<T extends EXP3Node>implements Backpropagator<T>
 		}
 	}
 
+	@Override
+	public void backpropagate(List<T> nodes, double[] reward) {
+		int nodeSize = nodes.size();
+
+		for (int i = nodeSize - 1; i >= 0; i--) {
+
+			T node = nodes.get(i);
+			int id = node.getRewardId();
+			if (id != 0) {
+				node.setReward(Math.exp(reward[id] / node.getProbability()));
+			}
+
+		}
+	}
+
 }
@@ -0,0 +1,42 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts.backpropagators;
+
+import ssamot.mcts.TreeArena;
+
+public class IndexUCBBackpropagator implements IndexBackpropagator {
+
+	@Override
+	public void backpropagate(TreeArena tree, int[] path, int length,
+			double[] reward) {
+		for (int i = length - 1; i >= 0; i--) {
+			int node = path[i];
+			int id = tree.getRewardId(node);
+
+			if (id > 0) {
+				tree.addValue(node, reward[id]);
+			} else {
+				// root or random nodes
+				tree.addValue(node, 1.0);
+			}
+		}
+	}
+
+}
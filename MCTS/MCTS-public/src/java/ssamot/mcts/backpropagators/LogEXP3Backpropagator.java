@@ -0,0 +1,115 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts.backpropagators;
+
+import java.util.List;
+
+import ssamot.mcts.selectors.exp3.EXP3Node;
+
+/**
+ * Updates the log weights drawn from by
+ * {@link ssamot.mcts.selectors.exp3.LogEXP3}. Rewards should lie in [0, 1].
+ * <p>
+ * EXP3: the chosen child gets log w += gamma * (x / p) / K. EXP3.P (when
+ * constructed with alpha and a horizon T): every child j gets log w +=
+ * gamma / (3K) * (xhat_j + alpha / (p_j sqrt(K T))), where xhat_j is x / p
+ * for the chosen child and 0 for the others.
+ */
+public class LogEXP3Backpropagator<T extends EXP3Node> implements
+		PrimitiveBackpropagator<T> {
+
+	private final boolean exp3p;
+	private final double alpha;
+	private final double horizon;
+
+	public LogEXP3Backpropagator() {
+		this.exp3p = false;
+		this.alpha = 0;
+		this.horizon = 1;
+	}
+
+	/**
+	 * EXP3.P, with confidence parameter {@code alpha} for {@code horizon}
+	 * plays.
+	 */
+	public LogEXP3Backpropagator(double alpha, long horizon) {
+		this.exp3p = true;
+		this.alpha = alpha;
+		this.horizon = horizon;
+	}
+
+	@Override
+	public void backpropagate(List<T> nodes, List<Double> reward) {
+		for (int i = nodes.size() - 1; i > 0; i--) {
+			T node = nodes.get(i);
+			int id = node.getRewardId();
+			if (id != 0) {
+				update(nodes.get(i - 1), node, reward.get(id));
+			}
+		}
+	}
+
+	@Override
+	public void backpropagate(List<T> nodes, double[] reward) {
+		for (int i = nodes.size() - 1; i > 0; i--) {
+			T node = nodes.get(i);
+			int id = node.getRewardId();
+			if (id != 0) {
+				update(nodes.get(i - 1), node, reward[id]);
+			}
+		}
+	}
+
+	private void update(EXP3Node parent, EXP3Node chosen, double x) {
+		double[] probabilities = parent.getChildProbabilities();
+		int index = chosen.getChildIndex();
+		if (probabilities == null || index < 0) {
+			// not reached through LogEXP3
+			return;
+		}
+		double gamma = parent.getGamma();
+		int k = probabilities.length;
+		double max = parent.getMaxChildLogWeight();
+
+		if (!exp3p) {
+			double logWeight = chosen.getLogWeight() + gamma
+					* (x / probabilities[index]) / k;
+			chosen.setLogWeight(logWeight);
+			parent.setMaxChildLogWeight(Math.max(max, logWeight));
+			return;
+		}
+
+		List<EXP3Node> children = parent.getChildren();
+		double rate = gamma / (3 * k);
+		double bonus = alpha / Math.sqrt(k * horizon);
+		max = Double.NEGATIVE_INFINITY;
+		for (int j = 0; j < k; j++) {
+			double p = probabilities[j];
+			double estimate = j == index ? x / p : 0;
+			EXP3Node child = children.get(j);
+			double logWeight = child.getLogWeight() + rate
+					* (estimate + bonus / p);
+			child.setLogWeight(logWeight);
+			max = Math.max(max, logWeight);
+		}
+		parent.setMaxChildLogWeight(max);
+	}
+
+}
@@ -0,0 +1,35 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts.backpropagators;
+
+import java.util.List;
+
+import ssamot.mcts.MCTSNode;
+
+/**
+ * A backpropagator that can take the rewards as a plain array. MCTS uses this
+ * overload whenever it is available, so that no rewards are boxed per
+ * simulation. Both the node list and the reward array are reused by the
+ * caller and must not be kept.
+ */
+public interface PrimitiveBackpropagator<T extends MCTSNode> extends
+		Backpropagator<T> {
+	public void backpropagate(List<T> nodes, double[] reward);
+}
@@ -23,7 +23,7 @@ import java.util.List;
 
 import ssamot.mcts.StatisticsNode;
 
-public class UCBBackpropagator<T extends StatisticsNode>implements Backpropagator<T> {
+public class UCBBackpropagator<T extends StatisticsNode>implements PrimitiveBackpropagator<T> {
 
 	@Override
 	public void backpropagate(List<T> nodes, List<Double> reward) {
@@ -51,4 +51,24 @@ public class UCBBackpropagator<T extends StatisticsNode>implements Backpropagato
 		}
 	}
 
+	@Override
+	public void backpropagate(List<T> nodes, double[] reward) {
+		int nodeSize = nodes.size();
+
+		for (int i = nodeSize - 1; i >= 0; i--) {
+
+			T node = nodes.get(i);
+			int id = node.getRewardId();
+
+			if (id > 0) {
+				node.getStatistics().addValue(reward[id]);
+			}
+			else {
+				//root or random nodes
+				node.getStatistics().addValue(1.0);
+			}
+
+		}
+	}
+
 }
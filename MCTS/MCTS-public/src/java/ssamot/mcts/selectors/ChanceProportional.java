@@ -22,11 +22,11 @@ package ssamot.mcts.selectors;
 import java.util.List;
 
 import ssamot.mcts.MCTSNode;
+import ssamot.utilities.RandomService;
+import ssamot.utilities.RandomSource;
 
 public class ChanceProportional<T extends MCTSNode> implements Selector<T> {
 
-	java.util.Random generator = new java.util.Random();
-
 	@Override
 	public T selectChild(T node) {
 	
@@ -35,6 +35,7 @@ public class ChanceProportional<T extends MCTSNode> implements Selector<T> {
 
 	//	if (children.get(0).getType() == NodeType.STOCHASTIC) {
 
+			RandomSource generator = RandomService.get();
 			int index = -1;
 
 			double prob = generator.nextDouble();
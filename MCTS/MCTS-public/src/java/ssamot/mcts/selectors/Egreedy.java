@@ -22,11 +22,12 @@ package ssamot.mcts.selectors;
 import java.util.List;
 
 import ssamot.mcts.StatisticsNode;
+import ssamot.utilities.RandomService;
+import ssamot.utilities.RandomSource;
 
 public class Egreedy<T extends StatisticsNode > implements Selector<StatisticsNode> {
     
     public static final double E = 0.2;
-    java.util.Random generator = new java.util.Random();
     
     @Override
     public StatisticsNode selectChild(StatisticsNode node) {
@@ -51,6 +52,7 @@ public class Egreedy<T extends StatisticsNode > implements Selector<StatisticsNo
             }
         }
         
+        RandomSource generator = RandomService.get();
         if(generator.nextDouble() < E && maxNode!=-1) {
             return children.get(maxNode);
         }
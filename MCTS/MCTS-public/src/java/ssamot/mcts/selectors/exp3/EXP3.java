@@ -20,12 +20,10 @@
 package ssamot.mcts.selectors.exp3;
 
 import ssamot.mcts.selectors.Selector;
-import ec.util.MersenneTwister;
+import ssamot.utilities.RandomService;
 
 public class EXP3 implements Selector<EXP3Node>  {
 
-	protected static MersenneTwister twister = new MersenneTwister();
-
 	
 	@Override
 	public EXP3Node selectChild(EXP3Node node) {
@@ -50,7 +48,7 @@ public class EXP3 implements Selector<EXP3Node>  {
 	
 		for (EXP3Node childNode : node.getChildren()) {
 
-			double prob = twister.nextDouble();
+			double prob = RandomService.get().nextDouble();
             
 			double probability = (1-node.getGamma())*(node.getReward()/rewardSum)+ 1.0/kn;
 			
@@ -44,6 +44,58 @@ public abstract class EXP3Node extends MCTSNode<EXP3Node> {
 		this.reward = reward;
 	}
 	private double reward = 0.0;
+
+	// used by LogEXP3: this node's weight as an arm of its parent, as a log
+	private double logWeight = 0.0;
+	// position among the parent's children, -1 until first selected
+	private int childIndex = -1;
+	// probabilities of the children as last drawn from
+	private double[] childProbabilities;
+	// largest log weight among the children, to normalise by
+	private double maxChildLogWeight = 0.0;
+
+	public double getLogWeight() {
+		return logWeight;
+	}
+
+	public void setLogWeight(double logWeight) {
+		this.logWeight = logWeight;
+	}
+
+	public int getChildIndex() {
+		return childIndex;
+	}
+
+	public void setChildIndex(int childIndex) {
+		this.childIndex = childIndex;
+	}
+
+	/**
+	 * The children's probabilities array, (re)allocated for {@code size}
+	 * children if need be.
+	 */
+	public double[] getChildProbabilities(int size) {
+		if (childProbabilities == null || childProbabilities.length != size) {
+			childProbabilities = new double[size];
+		}
+		return childProbabilities;
+	}
+
+	/**
+	 * The children's probabilities as last drawn from, or null before the
+	 * first draw.
+	 */
+	public double[] getChildProbabilities() {
+		return childProbabilities;
+	}
+
+	public double getMaxChildLogWeight() {
+		return maxChildLogWeight;
+	}
+
+	public void setMaxChildLogWeight(double maxChildLogWeight) {
+		this.maxChildLogWeight = maxChildLogWeight;
+	}
 	
 	
 	
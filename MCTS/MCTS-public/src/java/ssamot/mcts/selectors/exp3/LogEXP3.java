@@ -0,0 +1,94 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts.selectors.exp3;
+
+import java.util.List;
+
+import ssamot.mcts.selectors.Selector;
+import ssamot.utilities.RandomService;
+
+/**
+ * EXP3 selection with the weights kept as logs (see
+ * {@link ssamot.mcts.backpropagators.LogEXP3Backpropagator}). Weights are
+ * normalised by the largest one before exponentiating, so nothing overflows
+ * however long the run; probabilities go into a primitive array on the
+ * parent, and the child is drawn with a single uniform number.
+ * <p>
+ * p_i = (1 - gamma) w_i / sum_j w_j + gamma / K, with gamma taken from the
+ * parent node.
+ */
+public class LogEXP3 implements Selector<EXP3Node> {
+
+	@Override
+	public EXP3Node selectChild(EXP3Node node) {
+		List<EXP3Node> children = node.getChildren();
+		int k = children.size();
+		double[] probabilities = node.getChildProbabilities(k);
+
+		double sum = weigh(children, probabilities,
+				node.getMaxChildLogWeight());
+		if (sum == 0 || Double.isInfinite(sum)) {
+			// the running maximum is stale; normalise by the true one
+			double max = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < k; i++) {
+				max = Math.max(max, children.get(i).getLogWeight());
+			}
+			node.setMaxChildLogWeight(max);
+			sum = weigh(children, probabilities, max);
+		}
+
+		double gamma = node.getGamma();
+		double scale = (1 - gamma) / sum;
+		double explore = gamma / k;
+		double u = RandomService.get().nextDouble();
+		double cumulative = 0;
+		int selected = k - 1;
+		for (int i = 0; i < k; i++) {
+			double p = probabilities[i] * scale + explore;
+			probabilities[i] = p;
+			cumulative += p;
+			if (u < cumulative && selected == k - 1) {
+				selected = i;
+			}
+		}
+
+		EXP3Node child = children.get(selected);
+		if (child.getChildIndex() != selected) {
+			child.setChildIndex(selected);
+		}
+		return child;
+	}
+
+	/**
+	 * Writes exp(log weight - max) of every child into {@code out}.
+	 * 
+	 * @return their sum
+	 */
+	private double weigh(List<EXP3Node> children, double[] out, double max) {
+		double sum = 0;
+		for (int i = 0; i < out.length; i++) {
+			double w = Math.exp(children.get(i).getLogWeight() - max);
+			out[i] = w;
+			sum += w;
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts.selectors.ucb;
+
+import ssamot.config.GameConfig;
+import ssamot.mcts.TreeArena;
+import ssamot.mcts.selectors.IndexSelector;
+import ssamot.utilities.RandomService;
+
+/**
+ * UCB1 over the children of an arena node. Scores are the same as
+ * {@link UCB1}; children are scanned as a contiguous block of ids.
+ */
+public class IndexUCB1 implements IndexSelector {
+
+	private static double UCB1_C = GameConfig.getInstance().getUcb1C();
+	private static double UCB_MINIMUM_ITERATIONS = GameConfig.getInstance()
+			.getUcb1MinimumIterations();
+
+	@Override
+	public int selectChild(TreeArena tree, int node) {
+		int first = tree.getFirstChild(node);
+		int end = first + tree.getChildCount(node);
+		double parentVisits = tree.getVisits(node);
+
+		if (parentVisits < UCB_MINIMUM_ITERATIONS) {
+			return first + RandomService.get().nextInt(end - first);
+		}
+
+		double logParent = 2.0 * Math.log(parentVisits);
+		double max = Double.NEGATIVE_INFINITY;
+		int maxChild = first;
+		for (int child = first; child < end; child++) {
+			int visits = tree.getVisits(child);
+			double score;
+			if (visits != 0) {
+				score = tree.getValueSum(child) / visits + UCB1_C
+						* Math.sqrt(logParent / visits);
+			} else {
+				score = (double) Integer.MAX_VALUE
+						- RandomService.get().nextDouble();
+			}
+			if (score >= max) {
+				maxChild = child;
+				max = score;
+			}
+		}
+		return maxChild;
+	}
+
+}
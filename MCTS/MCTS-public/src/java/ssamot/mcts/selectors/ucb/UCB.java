@@ -21,12 +21,9 @@ package ssamot.mcts.selectors.ucb;
 
 import ssamot.mcts.StatisticsNode;
 import ssamot.mcts.selectors.Selector;
-import ec.util.MersenneTwister;
 
 public abstract class UCB<T extends StatisticsNode> implements Selector<T> {
 
-	protected MersenneTwister twister = new MersenneTwister();
-	
 	@Override
 	public T selectChild(T node) {
 
@@ -60,4 +57,21 @@ public abstract class UCB<T extends StatisticsNode> implements Selector<T> {
 
 	public abstract double getNodeScore(T fatherNode, T childNode);
 
+	/**
+	 * Visit count of a node, counting searchers that are still below it
+	 * (virtual loss) as visits that returned nothing.
+	 */
+	protected double getVisits(StatisticsNode node) {
+		return node.getStatistics().getN() + node.getVirtualLoss();
+	}
+
+	protected double getMean(StatisticsNode node) {
+		int virtualLoss = node.getVirtualLoss();
+		if (virtualLoss == 0) {
+			return node.getStatistics().getMean();
+		}
+		return node.getStatistics().getSum()
+				/ (node.getStatistics().getN() + virtualLoss);
+	}
+
 }
@@ -21,6 +21,7 @@ package ssamot.mcts.selectors.ucb;
 
 import ssamot.config.GameConfig;
 import ssamot.mcts.StatisticsNode;
+import ssamot.utilities.RandomService;
 
 
 public class UCB1 extends UCB {
@@ -34,21 +35,23 @@ public class UCB1 extends UCB {
         
     	double score = 0;
     	
-    	if(fatherNode.getStatistics().getN() < UCB_MINIMUM_ITERATIONS ) {
-    		score = (double)Integer.MAX_VALUE - twister.nextDouble();
+    	if(getVisits(fatherNode) < UCB_MINIMUM_ITERATIONS ) {
+    		score = (double) Integer.MAX_VALUE
+    				- RandomService.get().nextDouble();
     	}
     
-    	else if(childNode.getStatistics().getN() != 0 ) {
+    	else if(getVisits(childNode) != 0 ) {
     		
-    		score =  childNode.getStatistics().getMean() + UCB1_C
-                    * Math.sqrt((2.0*Math.log(fatherNode.getStatistics().getN())) / childNode.getStatistics().getN());	
-    		assert(fatherNode.getStatistics().getN()!=0);
+    		score =  getMean(childNode) + UCB1_C
+                    * Math.sqrt((2.0*Math.log(getVisits(fatherNode))) / getVisits(childNode));	
+    		assert(getVisits(fatherNode)!=0);
     		
     		//System.out.println(fatherNode.getStatistics().getN() + "  " + childNode.getStatistics().getN() + score);
     	}
     	
     	else {
-    		score = (double)Integer.MAX_VALUE - twister.nextDouble();
+    		score = (double) Integer.MAX_VALUE
+    				- RandomService.get().nextDouble();
     		//System.err.println("random");
     	}
     	
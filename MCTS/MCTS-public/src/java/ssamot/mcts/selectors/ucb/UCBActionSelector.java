@@ -26,8 +26,6 @@ import ssamot.mcts.selectors.Selector;
 
 public class UCBActionSelector<T extends StatisticsNode> implements Selector<T> {
 
-	private static final boolean PRINT_ACTIONS = true;
-
 	@Override
 	public StatisticsNode selectChild(StatisticsNode node) {
 		List<StatisticsNode> children = node.getChildren();
@@ -47,31 +45,12 @@ public class UCBActionSelector<T extends StatisticsNode> implements Selector<T>
 
 			cVal = cNode.getStatistics().getMean();
 
-			// double cVal = ((double) cNode.nb);
-			// PRINT_ACTIONS = false;
-			if (PRINT_ACTIONS) {
-				System.err.println("Possible Move: " + cNode.getType()
-						+ ", Probability=" + cNode.getProbability()
-						+ ", id=" + cNode.getRewardId() 
-						+ ", Action " + cNode.getAction()
-						+ ", Node.n=" + cNode.getStatistics().getN()
-						+ ", Node.value=" + cNode.getStatistics().getSum()
-						+ ", average value=" + cNode.getStatistics().getMean()
-						+ ", variance="
-						+ cNode.getStatistics().getStandardDeviation());
-				// System.err.println(cNode.toString());
-				//
-			}
 			// System.err.println(cVal);
 			if (cVal >= max) {
 				index = i;
 				max = cVal;
 			}
 		}
-		if (PRINT_ACTIONS) {
-			System.err.println("");
-		}
-
 		if (index == -1) {
 			return children.get(0);
 		}
@@ -20,6 +20,7 @@
 package ssamot.mcts.selectors.ucb;
 
 import ssamot.mcts.StatisticsNode;
+import ssamot.utilities.RandomService;
 
 public class UCBTUNED extends UCB {
 
@@ -33,9 +34,10 @@ public class UCBTUNED extends UCB {
 
 		double score = 0;
 
-		if (fatherNode.getStatistics().getN() < UCB_MINIMUM_ITERATIONS) {
-			score = (double) Integer.MAX_VALUE - twister.nextDouble();
-		} else if (childNode.getStatistics().getN() != 0) {
+		if (getVisits(fatherNode) < UCB_MINIMUM_ITERATIONS) {
+			score = (double) Integer.MAX_VALUE
+					- RandomService.get().nextDouble();
+		} else if (getVisits(childNode) != 0) {
 
 			double absMax = 1;
 
@@ -43,24 +45,25 @@ public class UCBTUNED extends UCB {
 			// absMax = Math.abs(childNode.getStatistics().getMin());
 			// }
 
-			double mean = childNode.getStatistics().getMean() / absMax;
+			double mean = getMean(childNode) / absMax;
 			double sd = childNode.getStatistics().getStandardDeviation()
 					/ absMax;
 
-			double nb = fatherNode.getStatistics().getN();
+			double nb = getVisits(fatherNode);
 			double V = sd
 					+ Math.sqrt(2.0 * Math.log(nb)
-							/ (childNode.getStatistics().getN()));
+							/ (getVisits(childNode)));
 
 			// System.out.println(childNode.getStatistics().getStandardDeviation());
 			score = mean
-					+ Math.sqrt((Math.log(nb) / childNode.getStatistics()
-							.getN()) * Math.min(1.0 / 4.0, V));
+					+ Math.sqrt((Math.log(nb) / getVisits(childNode))
+							* Math.min(1.0 / 4.0, V));
 
 		}
 
 		else {
-			score = (double) Integer.MAX_VALUE - twister.nextDouble();
+			score = (double) Integer.MAX_VALUE
+					- RandomService.get().nextDouble();
 		}
 
 		return score;
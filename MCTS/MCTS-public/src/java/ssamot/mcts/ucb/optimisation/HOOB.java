@@ -20,6 +20,7 @@
 package ssamot.mcts.ucb.optimisation;
 
 import ssamot.mcts.selectors.ucb.UCB;
+import ssamot.utilities.RandomService;
 
 public class HOOB extends UCB<MCTSContinuousNode> {
 
@@ -34,6 +35,11 @@ public class HOOB extends UCB<MCTSContinuousNode> {
 	private double vOne;
 	private int maxDepth;
 
+	// 2 log(iterations), the same for every node
+	private double logTerm;
+	// vOne * rho^depth, by depth
+	private double[] depthTerms;
+
 	public HOOB(int dimension, int iterations) {
 		super();
 		this.dimensions = dimension;
@@ -41,7 +47,21 @@ public class HOOB extends UCB<MCTSContinuousNode> {
 		this.vOne = Math.pow(Math.sqrt(dimension / 2), alpha);
 		this.iterations = iterations;
 		this.maxDepth = calculateMaximumDepth();
+		this.logTerm = 2.0 * Math.log(iterations);
+
+		// nodes are split down to 1.5 times the maximum depth
+		depthTerms = new double[maxDepth * 2 + 2];
+		for (int depth = 0; depth < depthTerms.length; depth++) {
+			depthTerms[depth] = vOne * Math.pow(rho, depth);
+		}
+
+	}
 
+	private double getDepthTerm(int depth) {
+		if (depth < depthTerms.length) {
+			return depthTerms[depth];
+		}
+		return vOne * Math.pow(rho, depth);
 	}
 
 	public int calculateMaximumDepth() {
@@ -60,17 +80,27 @@ public class HOOB extends UCB<MCTSContinuousNode> {
 		return (int) Math.ceil(num / denom);
 	}
 
+	/**
+	 * The U bound of a node. It only changes with the node's statistics, so
+	 * it is kept on the node until {@link MCTSContinuousNode#invalidateU()}
+	 * is called.
+	 */
 	public double getU(MCTSContinuousNode childNode) {
+		if (childNode.isUValid()) {
+			return childNode.getU();
+		}
 
+		double score;
 		if (childNode.getStatistics().getN() < UCB_MINIMUM_ITERATIONS) {
-			return (double) Integer.MAX_VALUE - twister.nextDouble();
+			score = (double) Integer.MAX_VALUE
+					- RandomService.get().nextDouble();
+		} else {
+			score = childNode.getStatistics().getMean()
+					+ UCB1_C
+					* Math.sqrt(logTerm / childNode.getStatistics().getN())
+					+ getDepthTerm(childNode.getDepth());
 		}
-
-		double score = childNode.getStatistics().getMean()
-				+ UCB1_C
-				* Math.sqrt((2.0 * Math.log(iterations))
-						/ childNode.getStatistics().getN()) + vOne
-				* Math.pow(rho, childNode.getDepth());
+		childNode.setU(score);
 		return score;
 	}
 
@@ -78,14 +108,14 @@ public class HOOB extends UCB<MCTSContinuousNode> {
 			MCTSContinuousNode childNode) {
 
 		if (childNode.getStatistics().getN() < UCB_MINIMUM_ITERATIONS) {
-			return (double) Integer.MAX_VALUE - twister.nextDouble();
+			return (double) Integer.MAX_VALUE
+					- RandomService.get().nextDouble();
 		}
 
 		double score = childNode.getStatistics().getMean()
 				+ UCB1_C
 				* (Math.sqrt((2.0 * Math.log(fatherNode.getStatistics().getN()))) / childNode
-						.getStatistics().getN()) + vOne
-				* Math.pow(rho, childNode.getDepth());
+						.getStatistics().getN()) + getDepthTerm(childNode.getDepth());
 		return score;
 	}
 
@@ -19,12 +19,23 @@
 
 package ssamot.mcts.ucb.optimisation;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import ssamot.mcts.MCTS;
 import ssamot.mcts.StatisticsNode;
 import ssamot.mcts.selectors.ChanceProportional;
 import ssamot.mcts.selectors.ucb.UCBActionSelector;
+import ssamot.utilities.ElapsedCpuTimer;
 
 public class HOOOptimiser extends MCTS<MCTSContinuousNode> {
 
@@ -33,20 +44,41 @@ public class HOOOptimiser extends MCTS<MCTSContinuousNode> {
 	private double min;
 	private double max;
 	private double gamma;
+	private ContinuousProblem function;
+
+	private int evaluationThreads = 1;
+	private int maxInFlight = 0;
+	private ExecutorService evaluationExecutor;
+	private int evaluationExecutorThreads;
 
 	public HOOOptimiser(ContinuousProblem func, int dimension, int iterations,
 			double min, double max, double gamma) {
+		this(func, dimension, iterations, min, max, gamma, iterations,
+				SampleStore.Eviction.RECENCY);
+	}
+
+	/**
+	 * An optimiser keeping at most {@code sampleCapacity} samples (0 for no
+	 * limit), so that long runs fit in a fixed heap; which samples are kept
+	 * once the store is full is decided by {@code eviction}.
+	 */
+	public HOOOptimiser(ContinuousProblem func, int dimension, int iterations,
+			double min, double max, double gamma, int sampleCapacity,
+			SampleStore.Eviction eviction) {
 		super();
 		
 		this.min = min;
 		this.max = max;
 		this.gamma = gamma;
+		this.function = func;
 		
 		hoob = new HOOB(dimension, iterations);
 
 		
 		setActionSelector(new UCBActionSelector());
-		bp = new HOOTruncatedBackpropagator(iterations, func, dimension,hoob);
+		SampleStore sampleStore = new SampleStore(dimension, sampleCapacity,
+				eviction);
+		bp = new HOOTruncatedBackpropagator(func, dimension, hoob, sampleStore);
 		setBackpropagator(bp);
 		setChanceNodeSelector(new ChanceProportional());
 		setDeterministicNodeSelector(hoob);
@@ -61,13 +93,183 @@ public class HOOOptimiser extends MCTS<MCTSContinuousNode> {
 
 		//System.out.println("maxDepth = " + hoob.getMaxDepth());
 		MCTSContinuousNode rootNode = new MCTSContinuousNode(minA, maxA,
-				2, -1, 0, (int) (hoob.getMaxDepth()*1.5), gamma);
+				2, -1, 0, (int) (hoob.getMaxDepth()*1.5), gamma, sampleStore);
 		rootNode.split();
 		rootNode.contId = "root";
 		setRootNode(rootNode);
 
 	}
 	
+	public int getEvaluationThreads() {
+		return evaluationThreads;
+	}
+
+	/**
+	 * Evaluates the problem on this many worker threads, keeping several
+	 * leaves in flight at once. The problem's evaluate method must then be
+	 * safe to call concurrently. One (the default) evaluates on the search
+	 * thread. Applies to both runForSim and runForMs.
+	 */
+	public void setEvaluationThreads(int evaluationThreads) {
+		if (evaluationThreads < 1) {
+			throw new IllegalArgumentException(
+					"Need at least one evaluation thread");
+		}
+		this.evaluationThreads = evaluationThreads;
+	}
+
+	/**
+	 * Most leaves waiting for an evaluation at any one time; defaults to
+	 * twice the number of evaluation threads.
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight > 0 ? maxInFlight : 2 * evaluationThreads;
+	}
+
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	@Override
+	public void runForMs(long time) {
+		if (evaluationThreads > 1) {
+			runParallel(time, Integer.MAX_VALUE);
+		} else {
+			super.runForMs(time);
+		}
+	}
+
+	@Override
+	public void runForSim(int simulations) {
+		if (evaluationThreads > 1) {
+			runParallel(Long.MAX_VALUE, simulations);
+		} else {
+			super.runForSim(simulations);
+		}
+	}
+
+	/**
+	 * Selection, splitting and backpropagation stay on this thread; only the
+	 * evaluations run on the pool. A leaf in flight (and so every ancestor)
+	 * is given a pessimistic B, the worst value seen so far, so the next
+	 * descents spread out over other leaves; the real B values are restored
+	 * as results come back, in whatever order they finish. Once the time (in
+	 * ms) is up no more leaves are launched, but those in flight are still
+	 * backpropagated.
+	 */
+	private void runParallel(long time, int simulations) {
+		ElapsedCpuTimer cput = new ElapsedCpuTimer(
+				ElapsedCpuTimer.TimerType.WALL_TIME);
+		boolean timed = time != Long.MAX_VALUE;
+		CompletionService<Evaluation> completion = new ExecutorCompletionService<Evaluation>(
+				getEvaluationExecutor());
+		List<Evaluation> inFlight = new ArrayList<Evaluation>();
+		Map<MCTSContinuousNode, PendingLeaf> pending = new IdentityHashMap<MCTSContinuousNode, PendingLeaf>();
+		int launched = 0;
+		int limit = getMaxInFlight();
+		for (;;) {
+			boolean launching = !timed || time > cput.elapsedMillis();
+			while (launching && inFlight.size() < limit
+					&& launched < simulations) {
+				List<MCTSContinuousNode> path = new ArrayList<MCTSContinuousNode>();
+				MCTSContinuousNode leaf = selectLeaf(path);
+				PendingLeaf pendingLeaf = pending.get(leaf);
+				if (pendingLeaf == null) {
+					pendingLeaf = new PendingLeaf(leaf.getB());
+					pending.put(leaf, pendingLeaf);
+				}
+				pendingLeaf.count++;
+
+				Evaluation evaluation = new Evaluation(function, path,
+						leaf.sampleAction());
+				inFlight.add(evaluation);
+				completion.submit(evaluation);
+				launched++;
+				penalise(path, pending);
+			}
+			if (inFlight.isEmpty()) {
+				break;
+			}
+
+			Evaluation done = await(completion);
+			inFlight.remove(done);
+			MCTSContinuousNode leaf = done.path.get(done.path.size() - 1);
+			PendingLeaf pendingLeaf = pending.get(leaf);
+			if (--pendingLeaf.count == 0) {
+				pending.remove(leaf);
+				leaf.setB(pendingLeaf.b);
+			}
+			bp.backpropagate(done.path, done.sample, done.value);
+
+			for (Evaluation evaluation : inFlight) {
+				penalise(evaluation.path, pending);
+			}
+		}
+	}
+
+	private Evaluation await(CompletionService<Evaluation> completion) {
+		try {
+			return completion.take().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while evaluating", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * Recomputes B along a path whose leaf is still being evaluated, the
+	 * same way the backpropagator does, but with the worst value seen so far
+	 * standing in for any leaf in flight.
+	 */
+	private void penalise(List<MCTSContinuousNode> path,
+			Map<MCTSContinuousNode, PendingLeaf> pending) {
+		double pessimistic = bp.getWorstValue();
+		int size = path.size();
+		path.get(size - 1).setB(pessimistic);
+		for (int i = size - 2; i >= 0; i--) {
+			MCTSContinuousNode node = path.get(i);
+			MCTSContinuousNode child1 = (MCTSContinuousNode) node
+					.getChildren().get(0);
+			MCTSContinuousNode child2 = (MCTSContinuousNode) node
+					.getChildren().get(1);
+			double B1;
+			double B2;
+			if (i == size - 2) {
+				B1 = pending.containsKey(child1) ? pessimistic : hoob
+						.getU(child1);
+				B2 = pending.containsKey(child2) ? pessimistic : hoob
+						.getU(child2);
+			} else {
+				B1 = child1.getB();
+				B2 = child2.getB();
+			}
+			node.setB(Math.min(hoob.getU(node), Math.max(B1, B2)));
+		}
+	}
+
+	private synchronized ExecutorService getEvaluationExecutor() {
+		if (evaluationExecutor != null
+				&& evaluationExecutorThreads != evaluationThreads) {
+			evaluationExecutor.shutdown();
+			evaluationExecutor = null;
+		}
+		if (evaluationExecutor == null) {
+			evaluationExecutor = Executors.newFixedThreadPool(
+					evaluationThreads, new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "hoo-evaluation");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			evaluationExecutorThreads = evaluationThreads;
+		}
+		return evaluationExecutor;
+	}
+
 	public double getBestValue() {
 		return bp.getBestValue();
 	}
@@ -119,8 +321,47 @@ public class HOOOptimiser extends MCTS<MCTSContinuousNode> {
 		return score;
 	}
 	
+	public SampleStore getSampleStore() {
+		return bp.getSampleStore();
+	}
+
 	public double[] getBestSample() {
 		return bp.getBestSample();
 	}
 
+	/**
+	 * One sample of a leaf, evaluated on the pool.
+	 */
+	private static class Evaluation implements Callable<Evaluation> {
+		final ContinuousProblem function;
+		final List<MCTSContinuousNode> path;
+		final double[] sample;
+		double value;
+
+		Evaluation(ContinuousProblem function, List<MCTSContinuousNode> path,
+				double[] sample) {
+			this.function = function;
+			this.path = path;
+			this.sample = sample;
+		}
+
+		@Override
+		public Evaluation call() {
+			value = function.evaluate(sample);
+			return this;
+		}
+	}
+
+	/**
+	 * A leaf with evaluations in flight, and its B from before they started.
+	 */
+	private static class PendingLeaf {
+		final double b;
+		int count;
+
+		PendingLeaf(double b) {
+			this.b = b;
+		}
+	}
+
 }
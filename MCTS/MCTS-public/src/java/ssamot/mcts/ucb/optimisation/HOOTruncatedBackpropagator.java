@@ -30,10 +30,10 @@ public class HOOTruncatedBackpropagator implements
 	private int length;
 
 	double bestValue = Double.NEGATIVE_INFINITY;
+	double worstValue = Double.POSITIVE_INFINITY;
 	double[] bestSample = null;
 	HOOB hoob = null;
-	double[][] samples;
-	double[] rewards;
+	private SampleStore sampleStore;
 	private int iteration;
 
 	// boolean once = true;
@@ -44,8 +44,22 @@ public class HOOTruncatedBackpropagator implements
 		this.function = function;
 		this.length = length;
 		this.hoob = hoob;
-		samples = new double[iterations][length];
-		rewards = new double[iterations];
+		this.sampleStore = new SampleStore(length, iterations,
+				SampleStore.Eviction.RECENCY);
+		this.iteration = 0;
+	}
+
+	/**
+	 * A backpropagator keeping the samples in the given store, which should
+	 * be the one the tree's nodes use.
+	 */
+	public HOOTruncatedBackpropagator(ContinuousProblem function, int length,
+			HOOB hoob, SampleStore sampleStore) {
+		super();
+		this.function = function;
+		this.length = length;
+		this.hoob = hoob;
+		this.sampleStore = sampleStore;
 		this.iteration = 0;
 	}
 
@@ -54,15 +68,21 @@ public class HOOTruncatedBackpropagator implements
 			List<Double> reward) {
 		// TODO Auto-generated method stub
 		// System.out.println(reward);
-		int nodeSize = nodes.size();
+		double[] funcVal = nodes.get(nodes.size() - 1).sampleAction();
 
-		double[] funcVal = new double[length];
-
-		int j = 0;
+		double value = function.evaluate(funcVal);
 
-		funcVal = nodes.get(nodes.size() - 1).sampleAction();
+		backpropagate(nodes, funcVal, value);
+	}
 
-		double value = function.evaluate(funcVal);
+	/**
+	 * Folds a sample of the last node in the path, and its value, back into
+	 * the tree: statistics and B values along the path, then a split of the
+	 * last node.
+	 */
+	public void backpropagate(List<MCTSContinuousNode> nodes,
+			double[] funcVal, double value) {
+		int nodeSize = nodes.size();
 
 		nodes.get(nodes.size() - 1).addSample(funcVal, value);
 
@@ -73,8 +93,10 @@ public class HOOTruncatedBackpropagator implements
 
 		}
 
-		samples[iteration] = funcVal.clone();
-		rewards[iteration] = value;
+		if (value < worstValue) {
+			worstValue = value;
+		}
+
 		iteration++;
 		//System.out.println(iteration + "iteration");
 		// System.out.println(Arrays.toString(funcVal) + length + " " + value);
@@ -90,6 +112,9 @@ public class HOOTruncatedBackpropagator implements
 				// root or random nodes
 				node.getStatistics().addValue(1.0);
 			}
+			// the statistics changed, so U has to be recomputed; siblings
+			// off the path keep theirs
+			node.invalidateU();
 
 			// if we are at the father of the last Node;
 			if (i == nodeSize - 2) {
@@ -129,24 +154,31 @@ public class HOOTruncatedBackpropagator implements
 		return bestValue;
 	}
 
+	/**
+	 * The lowest value seen so far, or negative infinity before the first
+	 * sample.
+	 */
+	public double getWorstValue() {
+		return iteration == 0 ? Double.NEGATIVE_INFINITY : worstValue;
+	}
+
 	public double[] getBestSample() {
 		return bestSample;
 	}
 
+	/**
+	 * The samples still held by the store, oldest first.
+	 */
 	public double[][] getSamples() {
-		return samples;
-	}
-
-	public void setSamples(double[][] samples) {
-		this.samples = samples;
+		return sampleStore.getPoints();
 	}
 
 	public double[] getRewards() {
-		return rewards;
+		return sampleStore.getRewards();
 	}
 
-	public void setRewards(double[] rewards) {
-		this.rewards = rewards;
+	public SampleStore getSampleStore() {
+		return sampleStore;
 	}
 
 }
@@ -21,18 +21,14 @@ package ssamot.mcts.ucb.optimisation;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 
 import ssamot.mcts.StatisticsNode;
 import ssamot.utilities.ArraysCopy;
 import ssamot.utilities.Common;
-import ssamot.utilities.SummaryStatistics;
-import ec.util.MersenneTwister;
+import ssamot.utilities.RandomService;
 
 public class MCTSContinuousNode extends StatisticsNode {
 
-	public static MersenneTwister twister = new MersenneTwister();
-
 	protected double action = -1;
 
 	boolean hasBeenSplit = false;
@@ -65,9 +61,18 @@ public class MCTSContinuousNode extends StatisticsNode {
 
 	private double B;
 
+	private double U;
+
+	private boolean uValid;
+
 	private boolean propagateSamples = true;
 
-	private HashMap<double[], Double> samples;
+	private SampleStore sampleStore;
+
+	// head of this node's chain of slots in the sample store
+	int firstSample = -1;
+
+	int sampleCount;
 
 	private double gamma;
 
@@ -77,25 +82,48 @@ public class MCTSContinuousNode extends StatisticsNode {
 		this.max = max;
 		this.splitPoints = splitPoints;
 		this.point = point;
-		this.actionStatistics = new SummaryStatistics();
 		this.depth = depth;
 		this.maxDepth = maxDepth;
 		this.autoGenerateChildren = false;
-		this.B = (double) Integer.MAX_VALUE - twister.nextDouble();
+		this.B = (double) Integer.MAX_VALUE
+				- RandomService.get().nextDouble();
 		this.gamma = gamma;
 
 	}
 
+	/**
+	 * A node (and, once split, children) keeping its samples in the given
+	 * store.
+	 */
+	public MCTSContinuousNode(double[] min, double max[], int splitPoints,
+			int point, int depth, int maxDepth, double gamma,
+			SampleStore sampleStore) {
+		this(min, max, splitPoints, point, depth, maxDepth, gamma);
+		this.sampleStore = sampleStore;
+	}
+
 	public void addSample(double[] sample, double reward) {
 		if (propagateSamples) {
-			if (samples == null) {
-				samples = new HashMap<double[], Double>();
+			if (sampleStore == null) {
+				sampleStore = new SampleStore(min.length);
 			}
-			samples.put(sample, reward);
+			sampleStore.add(this, sample, reward);
 		}
 
 	}
 
+	public SampleStore getSampleStore() {
+		return sampleStore;
+	}
+
+	/**
+	 * Number of samples held for this node; they move to the children on a
+	 * split.
+	 */
+	public int getSampleCount() {
+		return sampleCount;
+	}
+
 	public double[] getMin() {
 		return min;
 	}
@@ -122,7 +150,7 @@ public class MCTSContinuousNode extends StatisticsNode {
 		double[] sample = new double[min.length];
 		for (int i = 0; i < min.length; i++) {
 			sample[i] = min[i] + Math.abs(max[i] - min[i])
-					* twister.nextDouble();
+					* RandomService.get().nextDouble();
 		}
 
 		return sample;
@@ -161,7 +189,7 @@ public class MCTSContinuousNode extends StatisticsNode {
 				// System.out.println(Arrays.toString(splitProbs));
 				// System.out.println(splitDim);
 			} else {
-				splitDim = twister.nextInt(min.length);
+				splitDim = RandomService.get().nextInt(min.length);
 
 				double maxd = Double.NEGATIVE_INFINITY;
 				int maxd_i = -1;
@@ -175,29 +203,12 @@ public class MCTSContinuousNode extends StatisticsNode {
 				splitDim = maxd_i;
 
 			}
-			// splitDim = twister.nextInt(min.length);
+			// splitDim = RandomService.get().nextInt(min.length);
 			// System.out.println(splitDim);
 			double interval = Math.abs(max[splitDim] - min[splitDim])
 					/ (double) splitPoints;
 
-			HashMap<double[], Double>[] childrenSamples = new HashMap[2];
-			childrenSamples[0] = new HashMap<double[], Double>();
-			childrenSamples[1] = new HashMap<double[], Double>();
-
-			// if (samples != null && samples.size() >= 1) {
-			//
-			// for (double[] sample : samples.keySet()) {
-			// if (sample[splitDim] <= min[splitDim] + interval) {
-			// childrenSamples[0].put(sample, samples.get(sample));
-			// } else {
-			// childrenSamples[1].put(sample, samples.get(sample));
-			// }
-			// }
-			// //System.err.println(samples.keySet().size());
-			// }
-
-			// System.err.println(childrenSamples[0].keySet().size());
-			// System.err.println(childrenSamples[1].keySet().size());
+			MCTSContinuousNode[] splitChildren = new MCTSContinuousNode[splitPoints];
 			for (int i = 0; i < splitPoints; i++) {
 
 				double nMinD = min[splitDim] + i * interval;
@@ -212,32 +223,22 @@ public class MCTSContinuousNode extends StatisticsNode {
 				// Arrays.toString(nMax));
 
 				MCTSContinuousNode node = new MCTSContinuousNode(nMin, nMax,
-						splitPoints, i, depth + 1, maxDepth, gamma);
-				node.actionStatistics = new SummaryStatistics();
-
-				if (propagateSamples) {
-
-					node.samples = childrenSamples[i];
-					node.recalculateStatistics();
-				}
+						splitPoints, i, depth + 1, maxDepth, gamma, sampleStore);
+				splitChildren[i] = node;
 				// node.actionStatistics.addValue(actionStatistics.getMean());
 				node.contId = contId;
 				children.add(node);
 			}
 			// System.out.println("");
+			if (propagateSamples && sampleStore != null) {
+				sampleStore.partition(this, splitChildren, splitDim,
+						min[splitDim], interval);
+			}
 			hasBeenSplit = true;
 		}
 
 	}
 
-	private void recalculateStatistics() {
-		for (double value : samples.values()) {
-			actionStatistics.addValue(value);
-		}
-
-		// System.out.println(actionStatistics.getN());
-	}
-
 	public int getDepth() {
 		return depth;
 	}
@@ -303,4 +304,28 @@ public class MCTSContinuousNode extends StatisticsNode {
 		return this.B;
 	}
 
+	/**
+	 * The U bound last computed by HOOB; only meaningful while
+	 * {@link #isUValid()}.
+	 */
+	public double getU() {
+		return U;
+	}
+
+	public void setU(double u) {
+		this.U = u;
+		this.uValid = true;
+	}
+
+	public boolean isUValid() {
+		return uValid;
+	}
+
+	/**
+	 * Marks the U bound stale; to be called whenever the statistics change.
+	 */
+	public void invalidateU() {
+		this.uValid = false;
+	}
+
 }
@@ -0,0 +1,245 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.mcts.ucb.optimisation;
+
+import java.util.Arrays;
+
+import ssamot.utilities.RandomService;
+import ssamot.utilities.RandomSource;
+
+/**
+ * The samples of a HOO tree, in flat primitive arrays. Each sample is in a
+ * slot owned by one node; the slots of a node are chained together, so a
+ * split hands them over to the children without copying or hashing.
+ * <p>
+ * A store with a capacity keeps at most that many samples, replacing either
+ * the oldest one (RECENCY) or a uniformly random one so that every sample
+ * seen has the same chance of being kept (RESERVOIR). Without a capacity it
+ * grows as needed.
+ */
+public class SampleStore {
+
+	public enum Eviction {
+		RECENCY, RESERVOIR
+	}
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final int dimensions;
+	private final int capacity;
+	private final Eviction eviction;
+	private final RandomSource random = RandomService.split();
+
+	private double[] points;
+	private double[] rewards;
+	private int[] next;
+	private int[] previous;
+	private MCTSContinuousNode[] owners;
+
+	private int size;
+	private long added;
+
+	/**
+	 * An unbounded store.
+	 */
+	public SampleStore(int dimensions) {
+		this(dimensions, 0, Eviction.RECENCY);
+	}
+
+	public SampleStore(int dimensions, int capacity, Eviction eviction) {
+		this.dimensions = dimensions;
+		this.capacity = capacity;
+		this.eviction = eviction;
+		allocate(capacity > 0 ? capacity : INITIAL_CAPACITY);
+	}
+
+	private void allocate(int slots) {
+		points = points == null ? new double[slots * dimensions] : Arrays
+				.copyOf(points, slots * dimensions);
+		rewards = rewards == null ? new double[slots] : Arrays.copyOf(rewards,
+				slots);
+		next = next == null ? new int[slots] : Arrays.copyOf(next, slots);
+		previous = previous == null ? new int[slots] : Arrays.copyOf(previous,
+				slots);
+		owners = owners == null ? new MCTSContinuousNode[slots] : Arrays
+				.copyOf(owners, slots);
+	}
+
+	/**
+	 * Stores a sample for a node.
+	 * 
+	 * @return the slot used, or -1 if the sample was not kept
+	 */
+	public int add(MCTSContinuousNode owner, double[] point, double reward) {
+		int slot;
+		if (capacity <= 0 || size < capacity) {
+			if (size == rewards.length) {
+				allocate(rewards.length * 2);
+			}
+			slot = size++;
+		} else if (eviction == Eviction.RECENCY) {
+			slot = (int) (added % capacity);
+			unlink(slot);
+		} else {
+			long candidate = random.nextLong(added + 1);
+			if (candidate >= capacity) {
+				added++;
+				return -1;
+			}
+			slot = (int) candidate;
+			unlink(slot);
+		}
+		added++;
+
+		System.arraycopy(point, 0, points, slot * dimensions, dimensions);
+		rewards[slot] = reward;
+		link(slot, owner);
+		return slot;
+	}
+
+	/**
+	 * Hands every sample of a node over to the child whose cell contains it,
+	 * along dimension {@code dimension}; the children split the parent's
+	 * cell into equal intervals starting at {@code min}.
+	 */
+	public void partition(MCTSContinuousNode parent,
+			MCTSContinuousNode[] children, int dimension, double min,
+			double interval) {
+		int slot = parent.firstSample;
+		while (slot != -1) {
+			int following = next[slot];
+			int child = (int) ((points[slot * dimensions + dimension] - min) / interval);
+			child = Math.max(0, Math.min(children.length - 1, child));
+			unlink(slot);
+			link(slot, children[child]);
+			slot = following;
+		}
+	}
+
+	private void link(int slot, MCTSContinuousNode owner) {
+		owners[slot] = owner;
+		previous[slot] = -1;
+		next[slot] = owner.firstSample;
+		if (owner.firstSample != -1) {
+			previous[owner.firstSample] = slot;
+		}
+		owner.firstSample = slot;
+		owner.sampleCount++;
+	}
+
+	private void unlink(int slot) {
+		MCTSContinuousNode owner = owners[slot];
+		if (owner == null) {
+			return;
+		}
+		if (previous[slot] != -1) {
+			next[previous[slot]] = next[slot];
+		} else {
+			owner.firstSample = next[slot];
+		}
+		if (next[slot] != -1) {
+			previous[next[slot]] = previous[slot];
+		}
+		owner.sampleCount--;
+		owners[slot] = null;
+	}
+
+	/**
+	 * The slot after {@code slot} in its node's chain, or -1.
+	 */
+	public int getNext(int slot) {
+		return next[slot];
+	}
+
+	public double getReward(int slot) {
+		return rewards[slot];
+	}
+
+	public double getCoordinate(int slot, int dimension) {
+		return points[slot * dimensions + dimension];
+	}
+
+	public void getPoint(int slot, double[] out) {
+		System.arraycopy(points, slot * dimensions, out, 0, dimensions);
+	}
+
+	public MCTSContinuousNode getOwner(int slot) {
+		return owners[slot];
+	}
+
+	/**
+	 * The samples held, oldest first where the order is known.
+	 */
+	public double[][] getPoints() {
+		double[][] result = new double[size][dimensions];
+		for (int i = 0; i < size; i++) {
+			getPoint(toSlot(i), result[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * The rewards of the samples held, in the order of {@link #getPoints()}.
+	 */
+	public double[] getRewards() {
+		double[] result = new double[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = rewards[toSlot(i)];
+		}
+		return result;
+	}
+
+	private int toSlot(int i) {
+		if (eviction == Eviction.RECENCY && capacity > 0 && added > capacity) {
+			return (int) ((added + i) % capacity);
+		}
+		return i;
+	}
+
+	/**
+	 * Number of samples held.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Number of samples ever offered to the store.
+	 */
+	public long getAdded() {
+		return added;
+	}
+
+	/**
+	 * Most samples held at once, or 0 if unbounded.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int getDimensions() {
+		return dimensions;
+	}
+
+	public Eviction getEviction() {
+		return eviction;
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import ssamot.mcts.ArenaState;
+
+/**
+ * Same game as {@link UCBTestNode} without the chance layer: six moves of
+ * four actions each, won by playing action 0 at least four times.
+ */
+public class ArenaTestState implements ArenaState<ArenaTestState> {
+
+	int depth = 0;
+	int correctMoves = 0;
+
+	@Override
+	public ArenaTestState copy() {
+		ArenaTestState copy = new ArenaTestState();
+		copy.copyFrom(this);
+		return copy;
+	}
+
+	@Override
+	public void copyFrom(ArenaTestState other) {
+		this.depth = other.depth;
+		this.correctMoves = other.correctMoves;
+	}
+
+	@Override
+	public int getActions(int[] actions) {
+		if (depth > 5) {
+			return 0;
+		}
+		for (int i = 0; i < 4; i++) {
+			actions[i] = i;
+		}
+		return 4;
+	}
+
+	@Override
+	public int getMaximumActions() {
+		return 4;
+	}
+
+	@Override
+	public void makeAction(int action) {
+		if (action == 0) {
+			correctMoves++;
+		}
+		depth++;
+	}
+
+	@Override
+	public int getPlayerToMove() {
+		return 1;
+	}
+
+	@Override
+	public void evaluate(double[] out) {
+		out[0] = 0;
+		out[1] = correctMoves > 3 ? 1 : 0;
+	}
+
+	@Override
+	public int getGameTotalGamePlayers() {
+		return 2;
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import junit.framework.TestCase;
+import ssamot.mcts.ArenaMCTS;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.TreeArena;
+
+public class ArenaUCTTest extends TestCase {
+	ArenaMCTS<ArenaTestState> uct = null;
+
+	@Override
+	protected void setUp() throws Exception {
+		MCTS.DEBUG = false;
+		uct = new ArenaMCTS<ArenaTestState>(new ArenaTestState(),
+				new TreeArena(16));
+		uct.runForSim(10000);
+	}
+
+	public void testBestActionCorrect() {
+		assertEquals(0, uct.getHighestScoringAction());
+	}
+
+	public void testTreeStatistics() {
+		TreeArena tree = uct.getTree();
+		assertEquals(10000, tree.getVisits(TreeArena.ROOT));
+
+		int first = tree.getFirstChild(TreeArena.ROOT);
+		int visits = 0;
+		for (int i = 0; i < tree.getChildCount(TreeArena.ROOT); i++) {
+			assertEquals(TreeArena.ROOT, tree.getParent(first + i));
+			visits += tree.getVisits(first + i);
+		}
+		assertEquals(10000, visits);
+	}
+
+	public void testClearReusesArena() {
+		int capacity = uct.getTree().capacity();
+		uct.setRootState(new ArenaTestState());
+		assertEquals(1, uct.getTree().size());
+		assertEquals(capacity, uct.getTree().capacity());
+	}
+
+}
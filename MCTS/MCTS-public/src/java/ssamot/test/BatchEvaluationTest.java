@@ -0,0 +1,174 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.NodeBatchEvaluator;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.UCT;
+
+public class BatchEvaluationTest extends TestCase {
+
+	static class CountingEvaluator extends NodeBatchEvaluator<StatisticsNode> {
+		int batches = 0;
+		int leaves = 0;
+
+		@Override
+		public synchronized void evaluateBatch(List<StatisticsNode> leaves,
+				boolean[] defaultPolicy, double[][] out) {
+			batches++;
+			this.leaves += leaves.size();
+			super.evaluateBatch(leaves, defaultPolicy, out);
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		MCTS.DEBUG = false;
+	}
+
+	public void testBatchedSearch() {
+		CountingEvaluator evaluator = new CountingEvaluator();
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.setBatchEvaluator(evaluator);
+		uct.setBatchSize(8);
+		uct.runForSim(10000);
+
+		assertEquals(10000, evaluator.leaves);
+		assertEquals(1250, evaluator.batches);
+		assertEquals(10000.0, uct.getRootNode().getStatistics().getN());
+		assertEquals(0, uct.getHighestScoringChild().getAction());
+		// all virtual losses have been taken back
+		for (StatisticsNode child : uct.getRootNode().getChildren()) {
+			assertEquals(0, child.getVirtualLoss());
+		}
+	}
+
+	public void testSplitsBatchesOverEvaluationThreads() {
+		CountingEvaluator evaluator = new CountingEvaluator();
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.setBatchEvaluator(evaluator);
+		uct.setBatchSize(8);
+		uct.setEvaluationThreads(2);
+		uct.runForSim(1001);
+
+		assertEquals(1001, evaluator.leaves);
+		assertEquals(1001.0, uct.getRootNode().getStatistics().getN());
+	}
+
+	public void testDefaultPolicyOnlyWhereSerialSearchRunsIt() {
+		// the leaves cannot be evaluated directly, but with the default
+		// policy disabled serial search still scores them with evaluate()
+		UCT uct = new UCT(new SlowNode(-1, 0));
+		uct.setBatchEvaluator(new NodeBatchEvaluator<StatisticsNode>());
+		uct.setBatchSize(4);
+		uct.runForSim(200);
+
+		for (StatisticsNode child : uct.getRootNode().getChildren()) {
+			assertEquals(child.getStatistics().getN(), child.getStatistics()
+					.getSum(), 1e-9);
+		}
+	}
+
+	public void testInFlightLeavesAreNotExpanded() {
+		UCT uct = new UCT(new SlowNode(-1, 0));
+		uct.enableDefaultPolicy(true);
+		uct.setBatchEvaluator(new NodeBatchEvaluator<StatisticsNode>());
+		// with a single move to play, every batch of one reaches the leaf
+		// of the batch in flight
+		uct.setBatchSize(1);
+		uct.runForSim(200);
+
+		assertEquals(0, SlowNode.expandedInFlight.get());
+		assertEquals(200.0, uct.getRootNode().getStatistics().getN());
+	}
+
+	/**
+	 * A line of three moves, no node of which can be evaluated directly;
+	 * evaluate() scores 1, the default policy 0, slowly. Counts the default
+	 * policy runs that find their node expanded.
+	 */
+	private static class SlowNode extends StatisticsNode {
+		static final AtomicInteger expandedInFlight = new AtomicInteger();
+
+		private final int action;
+		private final int depth;
+
+		SlowNode(int action, int depth) {
+			this.action = action;
+			this.depth = depth;
+			this.autoGenerateChildren = true;
+		}
+
+		@Override
+		public int getAction() {
+			return action;
+		}
+
+		@Override
+		public int getRewardId() {
+			return 1;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return depth == 3;
+		}
+
+		@Override
+		public void generateChildren() {
+			children.add(new SlowNode(0, depth + 1));
+		}
+
+		@Override
+		public boolean canBeEvaluated() {
+			return false;
+		}
+
+		@Override
+		public double evaluate(int player) {
+			return 1;
+		}
+
+		@Override
+		public double evaluateDefaultPolicy(int player) {
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			// the search must not have expanded us before we are scored
+			if (isExpanded()) {
+				expandedInFlight.incrementAndGet();
+			}
+			return 0;
+		}
+
+		@Override
+		public int getGameTotalGamePlayers() {
+			return 2;
+		}
+	}
+
+}
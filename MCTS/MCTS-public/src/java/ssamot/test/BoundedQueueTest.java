@@ -0,0 +1,100 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+import ssamot.mcts.StatisticsNode;
+import ssamot.utilities.BoundedQueue;
+import ssamot.visualitation.AsyncVisualisationHandler;
+
+public class BoundedQueueTest extends TestCase {
+
+	public void testFifoAndFull() {
+		BoundedQueue<Integer> queue = new BoundedQueue<Integer>(3);
+		assertEquals(4, queue.capacity());
+		for (int i = 0; i < 4; i++) {
+			assertTrue(queue.offer(i));
+		}
+		assertFalse(queue.offer(4));
+		assertEquals(4, queue.size());
+		for (int i = 0; i < 4; i++) {
+			assertEquals(Integer.valueOf(i), queue.poll());
+		}
+		assertNull(queue.poll());
+		assertTrue(queue.offer(5));
+		assertEquals(Integer.valueOf(5), queue.poll());
+	}
+
+	public void testConcurrentProducers() throws InterruptedException {
+		final BoundedQueue<Long> queue = new BoundedQueue<Long>(64);
+		final int perThread = 20000;
+		final AtomicLong sum = new AtomicLong();
+		Thread[] producers = new Thread[4];
+		for (int t = 0; t < producers.length; t++) {
+			producers[t] = new Thread() {
+				@Override
+				public void run() {
+					for (long i = 1; i <= perThread; i++) {
+						while (!queue.offer(i)) {
+							Thread.yield();
+						}
+					}
+				}
+			};
+			producers[t].start();
+		}
+		long received = 0;
+		while (received < perThread * producers.length) {
+			Long value = queue.poll();
+			if (value != null) {
+				sum.addAndGet(value);
+				received++;
+			}
+		}
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		long expected = producers.length * (long) perThread
+				* (perThread + 1) / 2;
+		assertEquals(expected, sum.get());
+		assertNull(queue.poll());
+	}
+
+	public void testVisualisationDropsWhenFull() {
+		AsyncVisualisationHandler<StatisticsNode> handler = new AsyncVisualisationHandler<StatisticsNode>(
+				2, 10, 16);
+		StatisticsNode root = new UCBTestNode(-1, 0, 0);
+		for (StatisticsNode child : root.getChildren()) {
+			handler.publish(root, child);
+		}
+		assertEquals(2, handler.getPublished());
+		assertEquals(2, handler.getDropped());
+		assertEquals(2, handler.getPending());
+
+		// visited nodes are already drawn
+		root.getChildren().get(0).getStatistics().addValue(1);
+		handler.publish(root, root.getChildren().get(0));
+		assertEquals(2, handler.getPublished());
+		assertEquals(2, handler.getDropped());
+	}
+
+}
@@ -0,0 +1,56 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import junit.framework.TestCase;
+import ssamot.utilities.CopyPool;
+import ssamot.utilities.SerialClone;
+
+public class CopyPoolTest extends TestCase {
+
+	public void testReusesReleasedCopies() {
+		ArenaTestState state = new ArenaTestState();
+		state.makeAction(2);
+		CopyPool<ArenaTestState> pool = new CopyPool<ArenaTestState>(1);
+
+		ArenaTestState first = pool.copyOf(state);
+		assertNotSame(state, first);
+		pool.release(first);
+		assertEquals(1, pool.size());
+
+		state.makeAction(1);
+		ArenaTestState second = pool.copyOf(state);
+		assertSame(first, second);
+		assertEquals(0, pool.size());
+
+		assertEquals(2, second.depth);
+		assertEquals(0, second.correctMoves);
+	}
+
+	public void testSerialCloneUsesFastCopy() {
+		// not Serializable, so this only works through copy()
+		ArenaTestState state = new ArenaTestState();
+		state.makeAction(0);
+		ArenaTestState clone = SerialClone.clone(state);
+		assertNotSame(state, clone);
+		assertEquals(1, clone.correctMoves);
+	}
+
+}
@@ -20,10 +20,15 @@
 package ssamot.test;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import junit.framework.TestCase;
 import ssamot.mcts.MCTS;
+import ssamot.mcts.ucb.optimisation.HOOB;
 import ssamot.mcts.ucb.optimisation.HOOOptimiser;
+import ssamot.mcts.ucb.optimisation.MCTSContinuousNode;
 import ssamot.utilities.SummaryStatistics;
 
 public class HOOTest extends TestCase {
@@ -103,4 +108,70 @@ public class HOOTest extends TestCase {
 	
 	}
 
-}
\ No newline at end of file
+	public void testParallelEvaluation() {
+		MCTS.DEBUG = false;
+		int iterations = 2000;
+		final Set<Thread> threads = Collections
+				.synchronizedSet(new HashSet<Thread>());
+		XSquaredCoco func = new XSquaredCoco() {
+			@Override
+			public double evaluate(double[] x) {
+				threads.add(Thread.currentThread());
+				return super.evaluate(x);
+			}
+		};
+
+		HOOOptimiser hoo = new HOOOptimiser(func, 2, iterations, -1, 1, 1);
+		hoo.setEvaluationThreads(4);
+		hoo.runForSim(iterations);
+
+		assertEquals((double) iterations, hoo.getRootNode().getStatistics()
+				.getN());
+		assertFalse(threads.contains(Thread.currentThread()));
+		assertTrue(threads.size() > 1);
+
+		double[] best = hoo.getBestSample();
+		assertEquals(0.6, best[0], 0.1);
+		assertEquals(0.6, best[1], 0.1);
+	}
+
+	public void testParallelEvaluationForMs() {
+		MCTS.DEBUG = false;
+		final Set<Thread> threads = Collections
+				.synchronizedSet(new HashSet<Thread>());
+		XSquaredCoco func = new XSquaredCoco() {
+			@Override
+			public double evaluate(double[] x) {
+				threads.add(Thread.currentThread());
+				return super.evaluate(x);
+			}
+		};
+
+		HOOOptimiser hoo = new HOOOptimiser(func, 2, 2000, -1, 1, 1);
+		hoo.setEvaluationThreads(4);
+		long start = System.currentTimeMillis();
+		hoo.runForMs(100);
+
+		assertTrue(System.currentTimeMillis() - start >= 100);
+		assertTrue(hoo.getRootNode().getStatistics().getN() > 0);
+		assertFalse(threads.contains(Thread.currentThread()));
+		assertTrue(threads.size() > 1);
+	}
+
+	public void testUCachedUntilInvalidated() {
+		HOOB hoob = new HOOB(2, 1000);
+		MCTSContinuousNode node = new MCTSContinuousNode(
+				new double[] { 0, 0 }, new double[] { 1, 1 }, 2, -1, 3, 10, 1);
+		node.getStatistics().addValue(0.5);
+		double u = hoob.getU(node);
+		assertEquals(0.5 + Math.sqrt(2 * Math.log(1000)) + 1 * Math.pow(0.5, 3),
+				u, 1e-9);
+
+		node.getStatistics().addValue(0.5);
+		assertEquals(u, hoob.getU(node));
+
+		node.invalidateU();
+		assertTrue(hoob.getU(node) < u);
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import ssamot.mcts.backpropagators.LogEXP3Backpropagator;
+import ssamot.mcts.selectors.exp3.EXP3Node;
+import ssamot.mcts.selectors.exp3.LogEXP3;
+
+public class LogEXP3Test extends TestCase {
+
+	/**
+	 * A root with four arms; arm 2 pays 0.9, the others 0.5.
+	 */
+	private static class ArmNode extends EXP3Node {
+		private final int action;
+
+		ArmNode(int action) {
+			this.action = action;
+			this.autoGenerateChildren = true;
+			setGamma(0.1);
+		}
+
+		@Override
+		public int getAction() {
+			return action;
+		}
+
+		@Override
+		public int getRewardId() {
+			return 1;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return action != -1;
+		}
+
+		@Override
+		public void generateChildren() {
+			for (int i = 0; i < 4; i++) {
+				children.add(new ArmNode(i));
+			}
+		}
+
+		@Override
+		public boolean canBeEvaluated() {
+			return isLeaf();
+		}
+
+		@Override
+		public double evaluate(int player) {
+			return action == 2 ? 0.9 : 0.5;
+		}
+
+		@Override
+		public double evaluateDefaultPolicy(int player) {
+			return evaluate(player);
+		}
+
+		@Override
+		public int getGameTotalGamePlayers() {
+			return 2;
+		}
+	}
+
+	private int[] play(LogEXP3Backpropagator<EXP3Node> backpropagator,
+			EXP3Node root, int rounds) {
+		LogEXP3 selector = new LogEXP3();
+		List<EXP3Node> path = new ArrayList<EXP3Node>();
+		double[] reward = new double[2];
+		int[] counts = new int[4];
+		for (int i = 0; i < rounds; i++) {
+			EXP3Node arm = selector.selectChild(root);
+			counts[arm.getAction()]++;
+			path.clear();
+			path.add(root);
+			path.add(arm);
+			reward[1] = arm.evaluate(1);
+			backpropagator.backpropagate(path, reward);
+		}
+		return counts;
+	}
+
+	private void assertDistribution(EXP3Node root) {
+		double sum = 0;
+		for (double p : root.getChildProbabilities()) {
+			assertFalse(Double.isNaN(p) || Double.isInfinite(p));
+			assertTrue(p >= 0.1 / 4 - 1e-12);
+			sum += p;
+		}
+		assertEquals(1.0, sum, 1e-9);
+	}
+
+	public void testFindsBestArm() {
+		EXP3Node root = new ArmNode(-1);
+		int[] counts = play(new LogEXP3Backpropagator<EXP3Node>(), root, 5000);
+		for (int i = 0; i < 4; i++) {
+			if (i != 2) {
+				assertTrue(counts[2] > 4 * counts[i]);
+			}
+		}
+		assertDistribution(root);
+	}
+
+	public void testStableOverMillionsOfUpdates() {
+		EXP3Node root = new ArmNode(-1);
+		play(new LogEXP3Backpropagator<EXP3Node>(), root, 2000000);
+		assertDistribution(root);
+		// the old exp(x / p) weights overflow long before this
+		assertTrue(root.getMaxChildLogWeight() > 700);
+		// and the best arm now gets everything but the exploration share
+		assertEquals(1 - 0.1 + 0.1 / 4, root.getChildProbabilities()[2], 1e-9);
+	}
+
+	public void testExp3P() {
+		EXP3Node root = new ArmNode(-1);
+		int[] counts = play(new LogEXP3Backpropagator<EXP3Node>(0.1, 5000),
+				root, 5000);
+		for (int i = 0; i < 4; i++) {
+			if (i != 2) {
+				assertTrue(counts[2] > 2 * counts[i]);
+			}
+		}
+		assertDistribution(root);
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import junit.framework.TestCase;
+import ssamot.mcts.NodeStatistics;
+import ssamot.utilities.SummaryStatistics;
+
+public class NodeStatisticsTest extends TestCase {
+
+	public void testMatchesSummaryStatistics() {
+		NodeStatistics stats = new NodeStatistics();
+		SummaryStatistics reference = new SummaryStatistics();
+		for (int i = 0; i < 100; i++) {
+			double value = (i % 7) / 7.0;
+			stats.addValue(value);
+			reference.addValue(value);
+		}
+		assertEquals(reference.getN(), stats.getN());
+		assertEquals(reference.getMean(), stats.getMean(), 1e-12);
+		assertEquals(reference.getStandardDeviation(),
+				stats.getStandardDeviation(), 1e-12);
+	}
+
+	public void testNoLostUpdates() throws InterruptedException {
+		final NodeStatistics stats = new NodeStatistics();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					for (int j = 0; j < 100000; j++) {
+						stats.addValue(1.0);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(800000.0, stats.getN());
+		assertEquals(800000.0, stats.getSum());
+	}
+
+}
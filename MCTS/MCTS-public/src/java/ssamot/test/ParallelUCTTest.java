@@ -0,0 +1,204 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.MCTSNode;
+import ssamot.mcts.RootNodeFactory;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.UCT;
+
+public class ParallelUCTTest extends TestCase {
+
+	@Override
+	protected void setUp() throws Exception {
+		MCTS.DEBUG = false;
+	}
+
+	public void testTreeParallelBestActionCorrect() {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.setParallelisation(MCTS.Parallelisation.TREE);
+		uct.setThreads(4);
+		uct.runForSim(10000);
+
+		StatisticsNode bestNode = uct.getHighestScoringChild(uct.getRootNode());
+		assertEquals(0, bestNode.getAction());
+		assertEquals(10000.0, uct.getRootNode().getStatistics().getN());
+	}
+
+	/**
+	 * Terminal leaves are first evaluated by several threads at once; each
+	 * must back up its own score, never a partly built one.
+	 */
+	public void testTreeParallelTerminalLeavesScoredWhole() {
+		for (int run = 0; run < 10; run++) {
+			UCT uct = new UCT(new TerminalLeafNode(0, 0));
+			uct.setParallelisation(MCTS.Parallelisation.TREE);
+			uct.setThreads(8);
+			uct.runForSim(400);
+
+			for (StatisticsNode inner : uct.getRootNode().getChildren()) {
+				List<StatisticsNode> leaves = inner.isExpanded() ? inner
+						.getChildren() : null;
+				if (leaves == null) {
+					continue;
+				}
+				for (StatisticsNode leaf : leaves) {
+					double n = leaf.getStatistics().getN();
+					if (n > 0) {
+						assertEquals(((TerminalLeafNode) leaf).value * n, leaf
+								.getStatistics().getSum(), 1e-9);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * All threads start at the unexpanded root; its children, like any
+	 * others, must be counted once.
+	 */
+	public void testTreeParallelCountsNodesOnce() {
+		for (int run = 0; run < 10; run++) {
+			UCT uct = new UCT(new TerminalLeafNode(0, 0));
+			uct.setParallelisation(MCTS.Parallelisation.TREE);
+			uct.setThreads(8);
+			uct.runForSim(100);
+
+			long nodes = 0;
+			for (StatisticsNode inner : uct.getRootNode().getChildren()) {
+				nodes++;
+				if (inner.isExpanded()) {
+					nodes += inner.getChildren().size();
+				}
+			}
+			assertEquals(nodes, uct.getNodeCount());
+		}
+	}
+
+	public void testRootParallelBestActionCorrect() {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.setParallelisation(MCTS.Parallelisation.ROOT);
+		uct.setThreads(4);
+		uct.setRootNodeFactory(new RootNodeFactory<StatisticsNode>() {
+			@Override
+			public StatisticsNode createRootNode() {
+				return new UCBTestNode(-1, 0, 0);
+			}
+		});
+		uct.runForSim(10000);
+
+		StatisticsNode bestNode = uct.getHighestScoringChild(uct.getRootNode());
+		assertEquals(0, bestNode.getAction());
+		// every simulation ends up in the merged root
+		assertEquals(10000.0, uct.getRootNode().getStatistics().getN());
+	}
+
+	public void testRootParallelNeedsFactory() {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.setParallelisation(MCTS.Parallelisation.ROOT);
+		uct.setThreads(2);
+		try {
+			uct.runForSim(10);
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Two levels of four children; every leaf scores its own value (1 to
+	 * 16) for each player. Telling leaves apart and scoring them are
+	 * slow, so that threads meet while expanding and in evaluate().
+	 */
+	private static class TerminalLeafNode extends StatisticsNode {
+		private final int action;
+		private final int depth;
+		private final double value;
+
+		TerminalLeafNode(int action, int depth) {
+			this(action, depth, 0);
+		}
+
+		TerminalLeafNode(int action, int depth, double value) {
+			this.action = action;
+			this.depth = depth;
+			this.value = value;
+			this.autoGenerateChildren = true;
+		}
+
+		@Override
+		public int getAction() {
+			return action;
+		}
+
+		@Override
+		public int getRewardId() {
+			return 1;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			pause();
+			return depth == 2;
+		}
+
+		@Override
+		public void generateChildren() {
+			for (int i = 0; i < 4; i++) {
+				children.add(new TerminalLeafNode(i, depth + 1, depth == 1 ? 1
+						+ action * 4 + i + value : 0));
+			}
+		}
+
+		@Override
+		public boolean canBeEvaluated() {
+			return true;
+		}
+
+		@Override
+		public double evaluate(int player) {
+			pause();
+			return value;
+		}
+
+		private static void pause() {
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public double evaluateDefaultPolicy(int player) {
+			return 0;
+		}
+
+		@Override
+		public int getGameTotalGamePlayers() {
+			return 3;
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.Ponderer;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.UCT;
+
+public class PondererTest extends TestCase {
+
+	@Override
+	protected void setUp() throws Exception {
+		MCTS.DEBUG = false;
+	}
+
+	public void testKeepsPonderedPlayouts() throws InterruptedException {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.runForSim(1000);
+		uct.advanceRoot(uct.getHighestScoringChild());
+
+		StatisticsNode reply = uct.getRootNode().getChildren().get(0);
+		double before = reply.getStatistics().getN();
+
+		Ponderer<StatisticsNode> ponderer = new Ponderer<StatisticsNode>(uct);
+		ponderer.start();
+		Thread.sleep(50);
+		assertTrue(ponderer.isPondering());
+
+		long kept = ponderer.advanceRoot(0);
+		assertFalse(ponderer.isPondering());
+		assertSame(reply, uct.getRootNode());
+		assertTrue(kept > 0);
+		assertTrue(kept <= ponderer.getPonderedPlayouts());
+		assertEquals(before + kept, reply.getStatistics().getN());
+	}
+
+	public void testUnknownActionLeavesTree() {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.runForSim(100);
+		StatisticsNode root = uct.getRootNode();
+
+		Ponderer<StatisticsNode> ponderer = new Ponderer<StatisticsNode>(uct);
+		ponderer.start();
+		try {
+			ponderer.advanceRoot(7);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertFalse(ponderer.isPondering());
+		assertSame(root, uct.getRootNode());
+	}
+
+	public void testRejectsRootBeyondSnapshot() {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.runForSim(1000);
+		StatisticsNode root = uct.getRootNode();
+
+		Ponderer<StatisticsNode> ponderer = new Ponderer<StatisticsNode>(uct);
+		ponderer.start();
+		try {
+			// searched at start, but its visits then were not recorded
+			ponderer.advanceRoot(0, 0, 0);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertFalse(ponderer.isPondering());
+		assertSame(root, uct.getRootNode());
+
+		// still known two plies down
+		long kept = ponderer.advanceRoot(0, 0);
+		assertTrue(kept <= ponderer.getPonderedPlayouts());
+		assertNotSame(root, uct.getRootNode());
+	}
+
+}
@@ -0,0 +1,242 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.NodeBatchEvaluator;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.UCT;
+import ssamot.utilities.RandomService;
+import ssamot.utilities.RandomService.Kind;
+import ssamot.utilities.RandomSource;
+
+public class RandomServiceTest extends TestCase {
+
+	@Override
+	protected void setUp() throws Exception {
+		MCTS.DEBUG = false;
+	}
+
+	public void testSeedRepeatsSequence() {
+		for (Kind kind : Kind.values()) {
+			RandomService.setSeed(42, kind);
+			long[] first = draw(RandomService.get(), 100);
+			RandomService.setSeed(42, kind);
+			long[] second = draw(RandomService.get(), 100);
+			for (int i = 0; i < first.length; i++) {
+				assertEquals(kind.toString(), first[i], second[i]);
+			}
+		}
+	}
+
+	public void testSplitsDiffer() {
+		for (Kind kind : Kind.values()) {
+			RandomSource source = RandomService.create(7, kind);
+			RandomSource child = source.split();
+			long[] a = draw(source, 100);
+			long[] b = draw(child, 100);
+			int same = 0;
+			for (int i = 0; i < a.length; i++) {
+				if (a[i] == b[i]) {
+					same++;
+				}
+			}
+			assertEquals(kind.toString(), 0, same);
+		}
+	}
+
+	public void testBoundsAndUniformity() {
+		for (Kind kind : Kind.values()) {
+			RandomSource source = RandomService.create(3, kind);
+			int[] counts = new int[10];
+			for (int i = 0; i < 100000; i++) {
+				double d = source.nextDouble();
+				assertTrue(d >= 0 && d < 1);
+				counts[source.nextInt(10)]++;
+				long l = source.nextLong(1000000007L);
+				assertTrue(l >= 0 && l < 1000000007L);
+			}
+			for (int count : counts) {
+				assertTrue(kind + " " + count, Math.abs(count - 10000) < 500);
+			}
+		}
+	}
+
+	public void testThreadsGetOwnGenerators() throws InterruptedException {
+		RandomService.setSeed(11);
+		final RandomSource[] seen = new RandomSource[2];
+		Thread other = new Thread() {
+			@Override
+			public void run() {
+				seen[1] = RandomService.get();
+			}
+		};
+		other.start();
+		other.join();
+		seen[0] = RandomService.get();
+		assertNotSame(seen[0], seen[1]);
+		assertSame(seen[0], RandomService.get());
+	}
+
+	public void testSeededSearchIsRepeatable() {
+		RandomService.setSeed(5);
+		List<Double> first = visits(1000);
+		RandomService.setSeed(5);
+		List<Double> second = visits(1000);
+		assertEquals(first, second);
+	}
+
+	public void testSetLeavesRootSplitsAlone() throws InterruptedException {
+		RandomService.setSeed(13);
+		long[] expected = draw(RandomService.get(), 10);
+
+		RandomService.setSeed(13);
+		Thread other = new Thread() {
+			@Override
+			public void run() {
+				RandomSource previous = RandomService.set(RandomService
+						.create(1, Kind.SPLITMIX));
+				RandomService.set(previous);
+			}
+		};
+		other.start();
+		other.join();
+		long[] actual = draw(RandomService.get(), 10);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], actual[i]);
+		}
+	}
+
+	public void testSeededBatchedSearchIsRepeatable() {
+		RandomService.setSeed(5);
+		List<Double> first = batchedScores(1000);
+		RandomService.setSeed(5);
+		List<Double> second = batchedScores(1000);
+		assertEquals(first, second);
+	}
+
+	private List<Double> batchedScores(int simulations) {
+		UCT uct = new UCT(new RandomLeafNode(-1, 0));
+		uct.setBatchEvaluator(new NodeBatchEvaluator<StatisticsNode>());
+		uct.setBatchSize(8);
+		uct.setEvaluationThreads(2);
+		uct.runForSim(simulations);
+		List<Double> scores = new ArrayList<Double>();
+		for (StatisticsNode child : uct.getRootNode().getChildren()) {
+			scores.add(child.getStatistics().getN());
+			scores.add(child.getStatistics().getSum());
+		}
+		return scores;
+	}
+
+	private List<Double> visits(int simulations) {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.runForSim(simulations);
+		List<Double> visits = new ArrayList<Double>();
+		collect(uct.getRootNode(), visits);
+		return visits;
+	}
+
+	private void collect(StatisticsNode node, List<Double> visits) {
+		visits.add(node.getStatistics().getN());
+		if (node.getChildren() != null) {
+			for (StatisticsNode child : node.getChildren()) {
+				collect(child, visits);
+			}
+		}
+	}
+
+	/**
+	 * Two levels of three children whose leaves score a number drawn from
+	 * the evaluating thread's generator on every visit.
+	 */
+	private static class RandomLeafNode extends StatisticsNode {
+		private final int action;
+		private final int depth;
+
+		RandomLeafNode(int action, int depth) {
+			this.action = action;
+			this.depth = depth;
+			this.autoGenerateChildren = true;
+		}
+
+		@Override
+		public int getAction() {
+			return action;
+		}
+
+		@Override
+		public int getRewardId() {
+			return 1;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return depth == 2;
+		}
+
+		@Override
+		public void generateChildren() {
+			for (int i = 0; i < 3; i++) {
+				children.add(new RandomLeafNode(i, depth + 1));
+			}
+		}
+
+		@Override
+		public boolean canBeEvaluated() {
+			return isLeaf();
+		}
+
+		@Override
+		public double evaluate(int player) {
+			return RandomService.get().nextDouble();
+		}
+
+		@Override
+		public void evaluate(double[] out) {
+			// a fresh draw every time, not the scores cached by evaluate()
+			out[0] = 0;
+			out[1] = evaluate(1);
+		}
+
+		@Override
+		public double evaluateDefaultPolicy(int player) {
+			return 0;
+		}
+
+		@Override
+		public int getGameTotalGamePlayers() {
+			return 2;
+		}
+	}
+
+	private long[] draw(RandomSource source, int count) {
+		long[] values = new long[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = source.nextLong();
+		}
+		return values;
+	}
+
+}
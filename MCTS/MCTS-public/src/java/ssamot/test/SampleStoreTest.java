@@ -0,0 +1,104 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.ucb.optimisation.HOOOptimiser;
+import ssamot.mcts.ucb.optimisation.MCTSContinuousNode;
+import ssamot.mcts.ucb.optimisation.SampleStore;
+
+public class SampleStoreTest extends TestCase {
+
+	private MCTSContinuousNode createNode(SampleStore store) {
+		return new MCTSContinuousNode(new double[] { 0, 0 }, new double[] {
+				1, 1 }, 2, -1, 0, 10, 1.0, store);
+	}
+
+	public void testRecencyKeepsNewest() {
+		SampleStore store = new SampleStore(2, 3, SampleStore.Eviction.RECENCY);
+		MCTSContinuousNode node = createNode(store);
+		for (int i = 0; i < 5; i++) {
+			node.addSample(new double[] { i / 10.0, 0 }, i);
+		}
+
+		assertEquals(3, store.size());
+		assertEquals(5, store.getAdded());
+		assertEquals(3, node.getSampleCount());
+		double[] rewards = store.getRewards();
+		assertEquals(2.0, rewards[0]);
+		assertEquals(3.0, rewards[1]);
+		assertEquals(4.0, rewards[2]);
+		assertEquals(0.4, store.getPoints()[2][0]);
+	}
+
+	public void testReservoirIsBounded() {
+		SampleStore store = new SampleStore(2, 10,
+				SampleStore.Eviction.RESERVOIR);
+		MCTSContinuousNode node = createNode(store);
+		for (int i = 0; i < 1000; i++) {
+			node.addSample(new double[] { 0.5, 0.5 }, i);
+		}
+		assertEquals(10, store.size());
+		assertEquals(10, node.getSampleCount());
+
+		// with 1000 offered, keeping only the first ten is vanishingly unlikely
+		double sum = 0;
+		for (double reward : store.getRewards()) {
+			sum += reward;
+		}
+		assertTrue(sum > 45);
+	}
+
+	public void testSplitPartitionsSamples() {
+		SampleStore store = new SampleStore(2);
+		MCTSContinuousNode node = createNode(store);
+		node.addSample(new double[] { 0.1, 0.9 }, 1);
+		node.addSample(new double[] { 0.7, 0.2 }, 2);
+		node.addSample(new double[] { 0.3, 0.5 }, 3);
+		node.split();
+
+		MCTSContinuousNode low = (MCTSContinuousNode) node.getChildren().get(0);
+		MCTSContinuousNode high = (MCTSContinuousNode) node.getChildren()
+				.get(1);
+		assertEquals(0, node.getSampleCount());
+		assertEquals(2, low.getSampleCount());
+		assertEquals(1, high.getSampleCount());
+		assertSame(store, high.getSampleStore());
+
+		int slot = 0;
+		while (store.getOwner(slot) != high) {
+			slot++;
+		}
+		assertEquals(2.0, store.getReward(slot));
+	}
+
+	public void testOptimiserWithinCapacity() {
+		MCTS.DEBUG = false;
+		HOOOptimiser hoo = new HOOOptimiser(new XSquaredCoco(), 2, 2000, -1,
+				1, 1, 100, SampleStore.Eviction.RECENCY);
+		hoo.runForSim(2000);
+
+		assertEquals(100, hoo.getSampleStore().size());
+		assertEquals(2000, hoo.getSampleStore().getAdded());
+		assertEquals(0.6, hoo.getBestSample()[0], 0.1);
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.MetricsSink;
+import ssamot.mcts.SearchMetrics;
+import ssamot.mcts.SearchSession;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.UCT;
+
+public class SearchMetricsTest extends TestCase {
+
+	@Override
+	protected void setUp() throws Exception {
+		MCTS.DEBUG = false;
+	}
+
+	public void testCountsEverySearch() {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		SearchMetrics metrics = new SearchMetrics();
+		uct.setMetrics(metrics);
+		final int[] published = new int[1];
+		uct.setMetricsSink(new MetricsSink() {
+			@Override
+			public void searchFinished(SearchMetrics metrics) {
+				published[0]++;
+			}
+		});
+
+		uct.runForSim(3000);
+		uct.runForSim(2000);
+
+		assertEquals(2, published[0]);
+		assertEquals(2, metrics.getSearches());
+		assertEquals(5000, metrics.getPlayouts());
+		assertEquals(uct.getNodeCount(), metrics.getNodesAllocated());
+		assertTrue(metrics.getPlayoutsPerSecond() > 0);
+		assertTrue(metrics.getMaxDepth() >= 1);
+
+		long total = 0;
+		for (long count : metrics.getDepthHistogram()) {
+			total += count;
+		}
+		assertEquals(5000, total);
+
+		double visits = 0;
+		for (double v : metrics.getRootVisits()) {
+			visits += v;
+		}
+		StatisticsNode root = uct.getRootNode();
+		assertEquals(root.getChildren().size(), metrics.getRootActions().length);
+		assertEquals(root.getStatistics().getN(), visits);
+
+		metrics.reset();
+		assertEquals(0, metrics.getPlayouts());
+		assertEquals(0, metrics.getMaxDepth());
+	}
+
+	public void testSessionCountsAsOneSearch() {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		SearchMetrics metrics = new SearchMetrics();
+		uct.setMetrics(metrics);
+		final int[] published = new int[1];
+		uct.setMetricsSink(new MetricsSink() {
+			@Override
+			public void searchFinished(SearchMetrics metrics) {
+				published[0]++;
+			}
+		});
+
+		SearchSession<StatisticsNode> session = new SearchSession<StatisticsNode>(
+				uct);
+		session.setIterationLimit(1000);
+		session.start();
+		session.awaitCompletion();
+
+		// one search, not one per check interval
+		assertEquals(1, published[0]);
+		assertEquals(1, metrics.getSearches());
+		assertEquals(1000, metrics.getPlayouts());
+		assertEquals(uct.getNodeCount(), metrics.getNodesAllocated());
+	}
+
+	public void testParallelWorkersFlush() {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.setParallelisation(MCTS.Parallelisation.TREE);
+		uct.setThreads(4);
+		SearchMetrics metrics = new SearchMetrics();
+		uct.setMetrics(metrics);
+		uct.runForSim(10000);
+		assertEquals(10000, metrics.getPlayouts());
+	}
+
+	public void testExportedOverJmx() throws Exception {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		SearchMetrics metrics = new SearchMetrics();
+		uct.setMetrics(metrics);
+		ObjectName name = metrics
+				.register("ssamot.mcts:type=SearchMetrics,name=test");
+		try {
+			uct.runForSim(100);
+			assertEquals(100L, ManagementFactory.getPlatformMBeanServer()
+					.getAttribute(name, "Playouts"));
+		} finally {
+			SearchMetrics.unregister(name);
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.SearchSession;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.UCT;
+
+public class SearchSessionTest extends TestCase {
+	SearchSession<StatisticsNode> session = null;
+
+	@Override
+	protected void setUp() throws Exception {
+		MCTS.DEBUG = false;
+		session = new SearchSession<StatisticsNode>(new UCT(new UCBTestNode(
+				-1, 0, 0)));
+	}
+
+	public void testIterationLimit() {
+		session.setIterationLimit(1000);
+		session.setCheckInterval(7);
+		session.start();
+		session.awaitCompletion();
+
+		assertEquals(1000, session.getIterations());
+		assertEquals(1000.0, session.getMCTS().getRootNode().getStatistics()
+				.getN());
+		double[] visits = session.getVisitDistribution();
+		assertEquals(4, visits.length);
+		assertEquals(1000.0, visits[0] + visits[1] + visits[2] + visits[3]);
+	}
+
+	public void testTimeLimit() {
+		session.setTimeLimit(100);
+		long start = System.currentTimeMillis();
+		session.start();
+		session.awaitCompletion();
+
+		assertFalse(session.isRunning());
+		assertTrue(System.currentTimeMillis() - start >= 100);
+		assertEquals(0, session.getHighestScoringChild().getAction());
+	}
+
+	public void testNodeLimit() {
+		session.setNodeLimit(50);
+		session.setCheckInterval(1);
+		session.start();
+		session.awaitCompletion();
+
+		// a single simulation expands at most six nodes of four children
+		long nodes = session.getMCTS().getNodeCount();
+		assertTrue(nodes >= 50 && nodes < 50 + 6 * 4);
+	}
+
+	public void testPauseAndStop() throws InterruptedException {
+		session.start();
+		session.pause();
+		Thread.sleep(20);
+		long iterations = session.getIterations();
+		Thread.sleep(20);
+		assertEquals(iterations, session.getIterations());
+		assertTrue(session.isRunning());
+
+		session.resume();
+		Thread.sleep(20);
+		assertTrue(session.getIterations() > iterations);
+
+		session.stop();
+		assertFalse(session.isRunning());
+	}
+
+	public void testPauseKeepsTimeLimit() {
+		session.setTimeLimit(100);
+		long start = System.currentTimeMillis();
+		session.start();
+		session.pause();
+		// nobody resumes: the deadline alone ends the session
+		session.awaitCompletion();
+
+		long elapsed = System.currentTimeMillis() - start;
+		assertFalse(session.isRunning());
+		assertTrue(elapsed >= 100 && elapsed < 1000);
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.TranspositionTable;
+import ssamot.mcts.UCT;
+
+public class TranspositionTest extends TestCase {
+
+	@Override
+	protected void setUp() throws Exception {
+		MCTS.DEBUG = false;
+	}
+
+	public void testTranspositionsShareStatistics() {
+		TranspositionTable table = new TranspositionTable(1024);
+		UCT uct = new UCT(new TranspositionTestNode(-1, 0, 0));
+		uct.setTranspositionTable(table);
+		uct.runForSim(5000);
+
+		StatisticsNode bestNode = uct.getHighestScoringChild(uct.getRootNode());
+		assertEquals(0, bestNode.getAction());
+		assertTrue(table.getHits() > 0);
+		// one entry per (depth, correctMoves) pair below the root
+		assertEquals(27, table.size());
+
+		// 0 then 1 and 1 then 0 reach the same state
+		StatisticsNode zeroOne = uct.getRootNode().getChildren().get(0)
+				.getChildren().get(1);
+		StatisticsNode oneZero = uct.getRootNode().getChildren().get(1)
+				.getChildren().get(0);
+		assertSame(zeroOne.getStatistics(), oneZero.getStatistics());
+		assertSame(zeroOne.getChildren(), oneZero.getChildren());
+	}
+
+	public void testAdvanceRootReleasesEntries() {
+		TranspositionTable table = new TranspositionTable(1024);
+		UCT uct = new UCT(new TranspositionTestNode(-1, 0, 0));
+		uct.setTranspositionTable(table);
+		uct.runForSim(5000);
+		assertTrue(table.size() > 0);
+
+		// after playing 1 the states where only 0 was played, one per
+		// depth, are out of reach
+		uct.advanceRoot(uct.getRootNode().getChildren().get(1));
+		assertEquals(27 - 6, table.size());
+		for (StatisticsNode child : uct.getRootNode().getChildren()) {
+			long hash = ((TranspositionTestNode) child).getStateHash();
+			assertSame(child.getStatistics(), table.lookup(hash, child)
+					.getStatistics());
+		}
+
+		// the retained entries go on serving the kept subtree
+		uct.runForSim(2000);
+		assertEquals(27 - 6, table.size());
+	}
+
+	public void testReplacesLeastVisited() {
+		TranspositionTable table = new TranspositionTable(8);
+		TranspositionTestNode[] nodes = new TranspositionTestNode[9];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new TranspositionTestNode(i, 0, 0);
+			for (int j = 0; j <= i; j++) {
+				nodes[i].getStatistics().addValue(1.0);
+			}
+			assertSame(nodes[i], table.lookup(i, nodes[i]));
+		}
+		assertEquals(8, table.size());
+		assertEquals(1, table.getReplacements());
+		// the node with a single visit made room for the ninth
+		assertSame(nodes[8], table.lookup(8, nodes[0]));
+		assertEquals(1, table.getHits());
+	}
+
+}
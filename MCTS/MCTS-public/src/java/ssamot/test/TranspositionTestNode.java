@@ -0,0 +1,91 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.Transposable;
+
+/**
+ * Six binary moves, won by playing action 0 at least four times. The state
+ * only depends on how many of each action were played, so most nodes are
+ * transpositions of each other.
+ */
+public class TranspositionTestNode extends StatisticsNode implements
+		Transposable {
+
+	int action = -1;
+	int depth = 0;
+	int correctMoves = 0;
+
+	public TranspositionTestNode(int action, int depth, int correctMoves) {
+		super();
+		this.action = action;
+		this.depth = depth;
+		this.correctMoves = correctMoves;
+		this.autoGenerateChildren = true;
+	}
+
+	@Override
+	public long getStateHash() {
+		return ((long) depth << 32) | correctMoves;
+	}
+
+	@Override
+	public int getAction() {
+		return action;
+	}
+
+	@Override
+	public int getRewardId() {
+		return 1;
+	}
+
+	@Override
+	public boolean isLeaf() {
+		return depth > 5;
+	}
+
+	@Override
+	public void generateChildren() {
+		children.add(new TranspositionTestNode(0, depth + 1, correctMoves + 1));
+		children.add(new TranspositionTestNode(1, depth + 1, correctMoves));
+	}
+
+	@Override
+	public boolean canBeEvaluated() {
+		return isLeaf();
+	}
+
+	@Override
+	public double evaluate(int player) {
+		return correctMoves > 3 ? 1 : 0;
+	}
+
+	@Override
+	public double evaluateDefaultPolicy(int player) {
+		return 0;
+	}
+
+	@Override
+	public int getGameTotalGamePlayers() {
+		return 2;
+	}
+
+}
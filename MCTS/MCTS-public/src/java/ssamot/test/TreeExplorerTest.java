@@ -0,0 +1,172 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTSNode;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.TreeExplorer;
+
+public class TreeExplorerTest extends TestCase {
+
+	/**
+	 * Three actions per move, every third level a fair three-way chance
+	 * node, and pseudo-random leaf scores.
+	 */
+	private static class ExpectimaxNode extends StatisticsNode {
+		final int action;
+		final int depth;
+		final long path;
+		final int leafDepth;
+
+		ExpectimaxNode(int action, int depth, long path, int leafDepth) {
+			this.action = action;
+			this.depth = depth;
+			this.path = path;
+			this.leafDepth = leafDepth;
+			this.autoGenerateChildren = true;
+		}
+
+		@Override
+		public int getAction() {
+			return action;
+		}
+
+		@Override
+		public int getRewardId() {
+			return 1;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return depth >= leafDepth;
+		}
+
+		@Override
+		public void generateChildren() {
+			for (int i = 0; i < 3; i++) {
+				ExpectimaxNode child = new ExpectimaxNode(i, depth + 1,
+						path * 7 + i + 1, leafDepth);
+				if (depth % 3 == 2) {
+					child.setType(MCTSNode.NodeType.STOCHASTIC);
+					child.setProbability(1.0 / 3.0);
+				}
+				children.add(child);
+			}
+		}
+
+		@Override
+		public boolean canBeEvaluated() {
+			return isLeaf();
+		}
+
+		@Override
+		public double evaluate(int player) {
+			return ((path * 2654435761L) & 1023) / 1023.0;
+		}
+
+		@Override
+		public double evaluateDefaultPolicy(int player) {
+			return 0;
+		}
+
+		@Override
+		public int getGameTotalGamePlayers() {
+			return 2;
+		}
+	}
+
+	private static double reference(StatisticsNode node, int maxDepth) {
+		if (maxDepth < 1) {
+			return -1;
+		}
+		if (node.isLeaf()) {
+			return node.evaluate(1);
+		}
+		boolean chance = node.getChildren().get(0).getType() == MCTSNode.NodeType.STOCHASTIC;
+		double value = chance ? 0 : Double.NEGATIVE_INFINITY;
+		for (StatisticsNode child : node.getChildren()) {
+			double score = reference(child, maxDepth - 1);
+			value = chance ? value + child.getProbability() * score : Math
+					.max(value, score);
+		}
+		return value;
+	}
+
+	public void testMatchesRecursiveExpectimax() {
+		ExpectimaxNode root = new ExpectimaxNode(-1, 0, 1, 7);
+		TreeExplorer explorer = new TreeExplorer();
+		assertEquals(reference(root, 10), explorer.expectimax(root, 10, 1),
+				1e-12);
+		assertEquals(reference(root, 4), explorer.expectimax(root, 4, 1),
+				1e-12);
+		assertEquals(-1.0, explorer.expectimax(root, 0, 1));
+	}
+
+	public void testParallelMatchesSequential() {
+		ExpectimaxNode root = new ExpectimaxNode(-1, 0, 1, 8);
+		double sequential = new TreeExplorer().expectimax(root, 20, 1);
+
+		TreeExplorer explorer = new TreeExplorer();
+		explorer.setThreads(4);
+		assertEquals(sequential, explorer.expectimax(root, 20, 1), 1e-12);
+		// every node of the tree, 3^0 + ... + 3^8
+		assertEquals(9841, explorer.getMemoSize());
+	}
+
+	public void testDeepTreeDoesNotRecurse() {
+		// a single line of play far deeper than a recursive search could go
+		class ChainNode extends ExpectimaxNode {
+			ChainNode(int depth) {
+				super(0, depth, 1, 100000);
+			}
+
+			@Override
+			public void generateChildren() {
+				children.add(new ChainNode(depth + 1));
+			}
+		}
+		double value = new TreeExplorer().expectimax(new ChainNode(0),
+				200000, 1);
+		assertEquals(((1 * 2654435761L) & 1023) / 1023.0, value, 1e-12);
+	}
+
+	public void testStreamsDot() {
+		ExpectimaxNode root = new ExpectimaxNode(-1, 0, 1, 2);
+		StringWriter dot = new StringWriter();
+		TreeExplorer explorer = new TreeExplorer();
+		explorer.setDotWriter(dot);
+		explorer.expectimax(root, 5, 1);
+
+		String[] lines = dot.toString().split("\n");
+		int edges = 0;
+		for (String line : lines) {
+			if (line.contains("->")) {
+				edges++;
+			}
+		}
+		// 3 + 9 edges and a label for each of the 13 nodes
+		assertEquals(12, edges);
+		assertEquals(25, lines.length);
+	}
+
+}
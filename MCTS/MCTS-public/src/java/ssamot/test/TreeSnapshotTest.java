@@ -0,0 +1,119 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+import ssamot.mcts.MCTS;
+import ssamot.mcts.MappedTree;
+import ssamot.mcts.StatisticsNode;
+import ssamot.mcts.TreeSnapshot;
+import ssamot.mcts.UCT;
+
+public class TreeSnapshotTest extends TestCase {
+
+	private File file;
+
+	@Override
+	protected void setUp() throws Exception {
+		MCTS.DEBUG = false;
+		file = File.createTempFile("tree", ".snapshot");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+	}
+
+	public void testRoundTrip() throws IOException {
+		checkRoundTrip(false);
+	}
+
+	public void testCompressedRoundTrip() throws IOException {
+		checkRoundTrip(true);
+	}
+
+	private void checkRoundTrip(boolean compress) throws IOException {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.runForSim(2000);
+		StatisticsNode root = uct.getRootNode();
+
+		int written = TreeSnapshot.write(root, file, compress);
+		MappedTree tree = TreeSnapshot.open(file);
+		assertEquals(written, tree.size());
+		assertEquals(uct.getNodeCount() + 1, written);
+
+		assertEquals((long) root.getStatistics().getN(),
+				tree.getVisits(MappedTree.ROOT));
+		assertEquals(4, tree.getChildCount(MappedTree.ROOT));
+		for (StatisticsNode child : root.getChildren()) {
+			int node = tree.findChild(MappedTree.ROOT, child.getAction());
+			assertEquals((long) child.getStatistics().getN(),
+					tree.getVisits(node));
+			assertEquals(child.getStatistics().getSum(),
+					tree.getValueSum(node));
+		}
+
+		StatisticsNode best = uct.getRootNode().getChildren().get(0)
+				.getChildren().get(0);
+		int node = tree.find(0, 0);
+		assertEquals(0, tree.getAction(node));
+		assertEquals((long) best.getStatistics().getN(), tree.getVisits(node));
+		assertEquals(MappedTree.NOT_FOUND, tree.find(0, 9));
+		assertEquals(tree.findChild(MappedTree.ROOT, 0),
+				tree.getMostVisitedChild(MappedTree.ROOT));
+	}
+
+	public void testRestore() throws IOException {
+		UCT uct = new UCT(new UCBTestNode(-1, 0, 0));
+		uct.runForSim(500);
+		TreeSnapshot.write(uct.getRootNode(), file, false);
+
+		StatisticsNode fresh = new UCBTestNode(-1, 0, 0);
+		TreeSnapshot.open(file).restore(MappedTree.ROOT, fresh);
+
+		StatisticsNode original = uct.getRootNode();
+		assertEquals(original.getStatistics().getN(), fresh.getStatistics()
+				.getN());
+		for (int i = 0; i < 4; i++) {
+			StatisticsNode a = original.getChildren().get(i);
+			StatisticsNode b = fresh.getChildren().get(i);
+			assertEquals(a.getStatistics().getN(), b.getStatistics().getN());
+			assertEquals(a.getStatistics().getSumSq(), b.getStatistics()
+					.getSumSq());
+		}
+	}
+
+	public void testRejectsOtherFiles() throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		out.write(new byte[32]);
+		out.close();
+		try {
+			TreeSnapshot.open(file);
+			fail("Expected IOException");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+}
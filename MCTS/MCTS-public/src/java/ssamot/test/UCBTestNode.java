@@ -83,6 +83,7 @@ public class UCBTestNode extends StatisticsNode {
 		this.action = action;
 		this.depth = depth;
 		this.correctMoves = correctMoves;
+		this.autoGenerateChildren = true;
 	}
 
 	@Override
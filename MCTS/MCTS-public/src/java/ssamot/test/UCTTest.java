@@ -19,6 +19,9 @@
 
 package ssamot.test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import junit.framework.TestCase;
 import ssamot.mcts.StatisticsNode;
 import ssamot.mcts.UCT;
@@ -55,5 +58,93 @@ public class UCTTest extends TestCase {
 		assertTrue((bestNode.getChildren().get(0).getStatistics().getN() - bestNode.getChildren().get(1).getStatistics().getN()) >200);
 		//bestNode = uct.getHighestScoringChild(bestNode);
 	}
+
+	public void testAdvanceRootKeepsSubtree() {
+		StatisticsNode oldRoot = uct.getRootNode();
+		StatisticsNode bestNode = uct.getHighestScoringChild(oldRoot);
+		double visits = bestNode.getStatistics().getN();
+
+		assertEquals((long) visits, uct.advanceRoot(bestNode.getAction()));
+		assertSame(bestNode, uct.getRootNode());
+
+		uct.runForSim(1000);
+		assertEquals(visits + 1000, uct.getRootNode().getStatistics().getN());
+	}
+
+	public void testListDefaultPolicyOverrideStillUsed() {
+		UCT listUct = new UCT(new ListPolicyNode(-1, 0));
+		listUct.enableDefaultPolicy(true);
+		listUct.runForSim(100);
+
+		// every child was first scored by the overridden default policy
+		for (StatisticsNode child : listUct.getRootNode().getChildren()) {
+			assertTrue(child.getStatistics().getSum() >= 1);
+		}
+	}
+
+	/**
+	 * Two levels of three children, scored 0 everywhere except by its default
+	 * policy, which only overrides the list method.
+	 */
+	private static class ListPolicyNode extends StatisticsNode {
+		private final int action;
+		private final int depth;
+
+		ListPolicyNode(int action, int depth) {
+			this.action = action;
+			this.depth = depth;
+			this.autoGenerateChildren = true;
+		}
+
+		@Override
+		public int getAction() {
+			return action;
+		}
+
+		@Override
+		public int getRewardId() {
+			return 1;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return depth == 2;
+		}
+
+		@Override
+		public void generateChildren() {
+			for (int i = 0; i < 3; i++) {
+				children.add(new ListPolicyNode(i, depth + 1));
+			}
+		}
+
+		@Override
+		public boolean canBeEvaluated() {
+			return isLeaf();
+		}
+
+		@Override
+		public double evaluate(int player) {
+			return 0;
+		}
+
+		@Override
+		public double evaluateDefaultPolicy(int player) {
+			return 0;
+		}
+
+		@Override
+		public List<Double> evaluateDefaultPolicy() {
+			List<Double> scores = new ArrayList<Double>();
+			scores.add(0.0);
+			scores.add(1.0);
+			return scores;
+		}
+
+		@Override
+		public int getGameTotalGamePlayers() {
+			return 2;
+		}
+	}
 	
 }
\ No newline at end of file
@@ -24,10 +24,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
-import ec.util.MersenneTwister;
-
 public class Common {
-	public static MersenneTwister twister = new MersenneTwister();
 
 	public static boolean arrayRepresentsProbability(double[] probs) {
 		double sum = 0;
@@ -104,7 +101,7 @@ public class Common {
 	}
 
 	public static int pickRandomProportionally(double[] probs) {
-		double rand = twister.nextDouble();
+		double rand = RandomService.get().nextDouble();
 		//System.out.println(rand);
 		double probSum = 0;
 		for (int i = 0; i < probs.length; i++) {
@@ -178,10 +175,11 @@ public class Common {
 		int targetIndex;
 		int swapBuffer;
 		int maxInd = targetArray.length - 1;
+		RandomSource random = RandomService.get();
 		// System.out.println("Before Shufflying" +
 		// Arrays.toString(targetArray));
 		for (int curIndex = 0; curIndex < targetArray.length; curIndex++) {
-			targetIndex = (int) Math.round(Math.random() * maxInd);
+			targetIndex = (int) Math.round(random.nextDouble() * maxInd);
 			swapBuffer = targetArray[curIndex];
 			targetArray[curIndex] = targetArray[targetIndex];
 			targetArray[targetIndex] = swapBuffer;
@@ -0,0 +1,72 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.utilities;
+
+import java.util.ArrayDeque;
+
+/**
+ * Recycles copies of {@link FastCopyable} states: {@link #copyOf} reuses a
+ * released instance if there is one and only allocates otherwise. A pool is
+ * not thread-safe; give each search thread its own.
+ */
+public class CopyPool<T extends FastCopyable<T>> {
+
+	private final ArrayDeque<T> free = new ArrayDeque<T>();
+	private final int maximumSize;
+
+	public CopyPool() {
+		this(64);
+	}
+
+	/**
+	 * @param maximumSize
+	 *            most released instances kept; any more are left to the
+	 *            garbage collector
+	 */
+	public CopyPool(int maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	public T copyOf(T source) {
+		T copy = free.poll();
+		if (copy == null) {
+			return source.copy();
+		}
+		copy.copyFrom(source);
+		return copy;
+	}
+
+	/**
+	 * Hands a copy back; it must not be used afterwards.
+	 */
+	public void release(T copy) {
+		if (free.size() < maximumSize) {
+			free.push(copy);
+		}
+	}
+
+	/**
+	 * Number of released instances waiting to be reused.
+	 */
+	public int size() {
+		return free.size();
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.utilities;
+
+import ec.util.MersenneTwisterFast;
+
+/**
+ * {@link MersenneTwisterFast} behind the {@link RandomSource} interface, for
+ * when the twister's statistical pedigree matters more than its speed and its
+ * 2.5KB of state per thread.
+ */
+public class MersenneTwisterSource extends RandomSource {
+
+	private final MersenneTwisterFast twister;
+
+	public MersenneTwisterSource(long seed) {
+		twister = new MersenneTwisterFast(seed);
+	}
+
+	private MersenneTwisterSource(int[] seed) {
+		twister = new MersenneTwisterFast(seed);
+	}
+
+	@Override
+	public long nextLong() {
+		return twister.nextLong();
+	}
+
+	@Override
+	public int nextInt() {
+		return twister.nextInt();
+	}
+
+	@Override
+	public int nextInt(int n) {
+		return twister.nextInt(n);
+	}
+
+	@Override
+	public long nextLong(long n) {
+		return twister.nextLong(n);
+	}
+
+	@Override
+	public double nextDouble() {
+		return twister.nextDouble();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return twister.nextBoolean();
+	}
+
+	@Override
+	public MersenneTwisterSource split() {
+		int[] seed = new int[8];
+		for (int i = 0; i < seed.length; i++) {
+			seed[i] = twister.nextInt();
+		}
+		return new MersenneTwisterSource(seed);
+	}
+
+}
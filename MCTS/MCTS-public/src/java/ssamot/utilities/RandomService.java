@@ -0,0 +1,130 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.utilities;
+
+/**
+ * Hands every thread its own {@link RandomSource}, so that selectors and
+ * playouts never contend on a shared generator.
+ * <p>
+ * All thread generators are split from one root. After {@link #setSeed}, a
+ * single-threaded search is reproducible, and so is a parallel one, provided
+ * its workers {@link #set} generators split on the calling thread in a fixed
+ * order (as {@link ssamot.mcts.MCTS} does) rather than taking whatever
+ * {@link #get()} hands them first.
+ */
+public final class RandomService {
+
+	public enum Kind {
+		SPLITMIX, XORSHIFT, MERSENNE_TWISTER
+	}
+
+	private static class Holder {
+		int generation = -1;
+		RandomSource source;
+	}
+
+	private static final ThreadLocal<Holder> LOCAL = new ThreadLocal<Holder>() {
+		@Override
+		protected Holder initialValue() {
+			return new Holder();
+		}
+	};
+
+	private static RandomSource root = create(System.nanoTime()
+			^ SplitMix64.mix64(System.identityHashCode(LOCAL)), Kind.XORSHIFT);
+
+	private static Kind kind = Kind.XORSHIFT;
+
+	// bumped on every reseed so threads drop their old generators
+	private static volatile int generation;
+
+	private RandomService() {
+	}
+
+	public static RandomSource create(long seed, Kind kind) {
+		switch (kind) {
+		case SPLITMIX:
+			return new SplitMix64(seed);
+		case MERSENNE_TWISTER:
+			return new MersenneTwisterSource(seed);
+		default:
+			return new XorShift128Plus(seed);
+		}
+	}
+
+	/**
+	 * Reseeds the service with the current kind of generator. Every thread
+	 * gets a fresh generator the next time it asks for one.
+	 */
+	public static void setSeed(long seed) {
+		setSeed(seed, getKind());
+	}
+
+	public static synchronized void setSeed(long seed, Kind kind) {
+		RandomService.kind = kind;
+		root = create(seed, kind);
+		generation++;
+	}
+
+	public static synchronized Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * The calling thread's generator.
+	 */
+	public static RandomSource get() {
+		Holder holder = LOCAL.get();
+		int current = generation;
+		if (holder.generation != current) {
+			holder.source = splitRoot();
+			holder.generation = current;
+		}
+		return holder.source;
+	}
+
+	/**
+	 * A new generator split from the calling thread's, e.g. to hand to a
+	 * worker or to an object that keeps its own.
+	 */
+	public static RandomSource split() {
+		return get().split();
+	}
+
+	/**
+	 * Makes {@code source} the calling thread's generator.
+	 * 
+	 * @return the generator it replaces
+	 */
+	public static RandomSource set(RandomSource source) {
+		// not through get(), which would split a generator off the root
+		// only to drop it and so shift every later split
+		Holder holder = LOCAL.get();
+		RandomSource previous = holder.source;
+		holder.source = source;
+		holder.generation = source == null ? -1 : generation;
+		return previous;
+	}
+
+	private static synchronized RandomSource splitRoot() {
+		return root.split();
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.utilities;
+
+/**
+ * A pseudo-random generator that can split off statistically independent
+ * children. Instances are not thread safe; threads get their own from
+ * {@link RandomService}.
+ */
+public abstract class RandomSource {
+
+	private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+	public abstract long nextLong();
+
+	/**
+	 * A new generator, seeded from this one, whose sequence is independent of
+	 * this one's remaining sequence.
+	 */
+	public abstract RandomSource split();
+
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	/**
+	 * Uniform in [0, n).
+	 */
+	public int nextInt(int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("n must be positive, got " + n);
+		}
+		// Lemire's multiply-shift, rejecting the biased low end
+		long m = (nextLong() >>> 32) * n;
+		long low = m & 0xffffffffL;
+		if (low < n) {
+			long threshold = (0x100000000L - n) % n;
+			while (low < threshold) {
+				m = (nextLong() >>> 32) * n;
+				low = m & 0xffffffffL;
+			}
+		}
+		return (int) (m >>> 32);
+	}
+
+	/**
+	 * Uniform in [0, n).
+	 */
+	public long nextLong(long n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("n must be positive, got " + n);
+		}
+		long bits;
+		long value;
+		do {
+			bits = nextLong() >>> 1;
+			value = bits % n;
+		} while (bits - value + (n - 1) < 0);
+		return value;
+	}
+
+	/**
+	 * Uniform in [0, 1).
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+
+}
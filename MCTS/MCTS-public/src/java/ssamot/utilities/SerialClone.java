@@ -32,7 +32,15 @@ import java.util.LinkedList;
 import java.util.Queue;
 
 public class SerialClone {
+    /**
+     * Deep copy through serialisation; states implementing
+     * {@link FastCopyable} are copied directly instead.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     public static <T> T clone(T x) {
+	if (x instanceof FastCopyable) {
+	    return (T) ((FastCopyable) x).copy();
+	}
 	try {
 	    return cloneX(x);
 	} catch (IOException e) {
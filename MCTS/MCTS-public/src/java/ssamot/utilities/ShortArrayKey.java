@@ -41,6 +41,18 @@ public class ShortArrayKey implements Serializable{
 		return true;
 	}
 
+	/**
+	 * 64-bit FNV-1a hash of the key, for use as a transposition table hash.
+	 */
+	public long longHashCode() {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length; i++) {
+			hash ^= key[i] & 0xffff;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
 	public short[] getKey() {
 		return key;
 	}
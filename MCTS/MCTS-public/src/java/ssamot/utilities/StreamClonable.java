@@ -27,7 +27,15 @@ import java.io.ObjectOutputStream;
 
 
 public class StreamClonable {
+    /**
+     * Deep copy through serialisation, unless the subclass implements
+     * {@link FastCopyable}.
+     */
+    @SuppressWarnings("rawtypes")
     public Object clone() {
+        if (this instanceof FastCopyable) {
+            return ((FastCopyable) this).copy();
+        }
         Object clonedObj = null;
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -0,0 +1,56 @@
+/*
+ *
+ * *** BEGIN LICENSE
+ *  Copyright (C) 2012 Spyridon Samothrakis spyridon.samothrakis@gmail.com
+ *  This program is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 3, as published
+ *  by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranties of
+ *  MERCHANTABILITY, SATISFACTORY QUALITY, or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * *** END LICENSE
+ *
+ */
+
+package ssamot.utilities;
+
+/**
+ * Vigna's xorshift128+: two longs of state, a handful of shifts and xors
+ * per number. The state is filled from SplitMix64, so any seed (including
+ * zero) is fine and children from {@link #split()} start far apart.
+ */
+public class XorShift128Plus extends RandomSource {
+
+	private long s0;
+	private long s1;
+
+	public XorShift128Plus(long seed) {
+		SplitMix64 seeder = new SplitMix64(seed);
+		s0 = seeder.nextLong();
+		s1 = seeder.nextLong();
+		if ((s0 | s1) == 0) {
+			s1 = 1;
+		}
+	}
+
+	@Override
+	public long nextLong() {
+		long x = s0;
+		long y = s1;
+		s0 = y;
+		x ^= x << 23;
+		s1 = x ^ y ^ (x >>> 17) ^ (y >>> 26);
+		return s1 + y;
+	}
+
+	@Override
+	public XorShift128Plus split() {
+		return new XorShift128Plus(SplitMix64.mix64(nextLong()));
+	}
+
+}
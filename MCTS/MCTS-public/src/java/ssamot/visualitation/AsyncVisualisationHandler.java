@@ -0,0 +1,183 @@
+package ssamot.visualitation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.SwingUtilities;
+
+import ssamot.mcts.MCTSNode;
+import ssamot.mcts.StatisticsNode;
+import ssamot.utilities.BoundedQueue;
+
+/**
+ * Visualisation that stays off the search thread. The search only publishes
+ * the edges to nodes it reaches for the first time into a bounded lock-free
+ * queue, and a renderer thread adds them to the graph and refreshes the
+ * statistics of every cell at a fixed frame rate. When the queue is full the
+ * edge is dropped and counted; nodes whose father never made it into the
+ * graph are dropped (and counted) by the renderer.
+ */
+public class AsyncVisualisationHandler<T extends MCTSNode> extends
+		MCTSVisualisationHandler<T> {
+
+	private final BoundedQueue<Delta> queue;
+	private final long frameMillis;
+	private final int maxDeltasPerFrame;
+
+	private final AtomicLong published = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+
+	private volatile Thread renderer;
+
+	public AsyncVisualisationHandler() {
+		this(4096, 10, 256);
+	}
+
+	/**
+	 * @param capacity
+	 *            most edges waiting to be drawn
+	 * @param framesPerSecond
+	 *            how often the graph is updated
+	 * @param maxDeltasPerFrame
+	 *            most edges added per update, to keep the UI responsive
+	 */
+	public AsyncVisualisationHandler(int capacity, int framesPerSecond,
+			int maxDeltasPerFrame) {
+		this.queue = new BoundedQueue<Delta>(capacity);
+		this.frameMillis = Math.max(1, 1000 / framesPerSecond);
+		this.maxDeltasPerFrame = maxDeltasPerFrame;
+	}
+
+	@Override
+	public void handle(T father, T child, Visualiser vis) {
+		if (renderer == null) {
+			start(vis);
+		}
+		publish(father, child);
+	}
+
+	/**
+	 * Queues the edge from {@code father} to {@code child} if the child has
+	 * not been visited yet; never blocks.
+	 * 
+	 * @return false if the edge was not queued
+	 */
+	public boolean publish(T father, T child) {
+		StatisticsNode node = (StatisticsNode) child;
+		if (node.getStatistics().getN() > 0) {
+			return false;
+		}
+		if (queue.offer(new Delta((StatisticsNode) father, node))) {
+			published.incrementAndGet();
+			return true;
+		}
+		dropped.incrementAndGet();
+		return false;
+	}
+
+	private synchronized void start(final Visualiser vis) {
+		if (renderer != null) {
+			return;
+		}
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				render(vis);
+			}
+		}, "mcts-visualiser");
+		thread.setDaemon(true);
+		renderer = thread;
+		thread.start();
+	}
+
+	/**
+	 * Stops the renderer thread; edges still queued are not drawn.
+	 */
+	public synchronized void stop() {
+		if (renderer != null) {
+			renderer.interrupt();
+			renderer = null;
+		}
+	}
+
+	private void render(final Visualiser vis) {
+		final List<Delta> frame = new ArrayList<Delta>(maxDeltasPerFrame);
+		Runnable apply = new Runnable() {
+			@Override
+			public void run() {
+				for (Delta delta : frame) {
+					add(vis, delta);
+				}
+				if (!frame.isEmpty()) {
+					vis.layoutTree();
+				}
+				vis.refresh();
+			}
+		};
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				Thread.sleep(frameMillis);
+				frame.clear();
+				Delta delta;
+				while (frame.size() < maxDeltasPerFrame
+						&& (delta = queue.poll()) != null) {
+					frame.add(delta);
+				}
+				SwingUtilities.invokeAndWait(apply);
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		} catch (InvocationTargetException e) {
+			e.getCause().printStackTrace();
+		}
+	}
+
+	private void add(Visualiser vis, Delta delta) {
+		MCTSCell father = new MCTSCell(delta.father);
+		if (!vis.containsNode(father.getId())) {
+			dropped.incrementAndGet();
+			return;
+		}
+		try {
+			vis.addNode(father, new MCTSCell(delta.child),
+					delta.child.getAction() + " ", false);
+		} catch (Exception e) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Number of edges queued for drawing so far.
+	 */
+	public long getPublished() {
+		return published.get();
+	}
+
+	/**
+	 * Number of edges that were not drawn, because the queue was full or
+	 * their father was missing.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Number of edges waiting for the renderer.
+	 */
+	public int getPending() {
+		return queue.size();
+	}
+
+	private static class Delta {
+		final StatisticsNode father;
+		final StatisticsNode child;
+
+		Delta(StatisticsNode father, StatisticsNode child) {
+			this.father = father;
+			this.child = child;
+		}
+	}
+
+}
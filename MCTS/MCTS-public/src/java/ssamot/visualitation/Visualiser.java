@@ -96,6 +96,15 @@ public class Visualiser extends JFrame {
 	}
 
 	public void addNode(mxCell father, MCTSCell child, String edgeName) throws Exception {
+		addNode(father, child, edgeName, true);
+	}
+
+	/**
+	 * Adds a node under {@code father}; when adding many at once, pass false
+	 * for {@code layout} and call {@link #layoutTree()} after the last one.
+	 */
+	public void addNode(mxCell father, MCTSCell child, String edgeName,
+			boolean layout) throws Exception {
 
 		if(nodes.containsKey(child.getId())) {
 			//System.exit(0);
@@ -133,9 +142,9 @@ public class Visualiser extends JFrame {
 			graph.getModel().endUpdate();
 			//System.err.println("dneind bup");
 		}
-		mxCompactTreeLayout layout = new mxCompactTreeLayout(graph);
-		layout.setHorizontal(false);
-		layout.execute(graph.getDefaultParent());
+		if (layout) {
+			layoutTree();
+		}
 		
 	
 		//graph.
@@ -144,6 +153,19 @@ public class Visualiser extends JFrame {
 		// 
 	}
 	
+	public void layoutTree() {
+		mxCompactTreeLayout layout = new mxCompactTreeLayout(graph);
+		layout.setHorizontal(false);
+		layout.execute(graph.getDefaultParent());
+	}
+
+	/**
+	 * Whether a node with this id is already in the graph.
+	 */
+	public boolean containsNode(String id) {
+		return nodes.containsKey(id);
+	}
+
 	public void refresh() {
 		// update all values
 		for (Map.Entry<String,MCTSCell> entry  : nodes.entrySet()) {
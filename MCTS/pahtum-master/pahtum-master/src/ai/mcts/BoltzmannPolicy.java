@@ -0,0 +1,83 @@
+package ai.mcts;
+
+import util.FastRandom;
+
+/**
+ * Boltzmann's distribution over the heuristic: descend to a child drawn with 
+ * probability proportional to exp(p / T), where p is the potential of the 
+ * child's move (Charles_2's heuristic) and T the temperature; play the child 
+ * with the highest sum of outcomes.
+ * <p> The probabilities of the children of a node are calculated once, when 
+ * the node is first descended from; by then all its children exist.
+ * @author kg687
+ *
+ */
+public class BoltzmannPolicy implements TreePolicy {
+	private final double t;		//Temperature.
+
+	/**
+	 * Create the policy.
+	 * @param t Temperature; the lower, the more the best moves are preferred.
+	 */
+	public BoltzmannPolicy(double t) {
+		this.t = t;
+	}
+
+	public int select(Tree tree, int node) {
+		int first = tree.getFirstChild(node);
+		if(Double.isNaN(tree.getProbability(first))) {
+			assignProbabilities(tree, node);
+		}
+
+		//Walk the cumulative distribution.
+		double randomNumber = FastRandom.current().nextDouble();
+		int child = first;
+		while(true) {
+			randomNumber -= tree.getProbability(child);
+			int next = tree.getNextSibling(child);
+			if(randomNumber < 0 || next == Tree.NONE) {
+				return child;
+			}
+			child = next;
+		}
+	}
+
+	private void assignProbabilities(Tree tree, int node) {
+		//The highest potential is subtracted to keep exp in range; it 
+		//cancels out.
+		int highest = Integer.MIN_VALUE;
+		for(int child = tree.getFirstChild(node); child != Tree.NONE;
+				child = tree.getNextSibling(child)) {
+			highest = Math.max(highest, tree.getPotential(child));
+		}
+		double sum = 0;
+		for(int child = tree.getFirstChild(node); child != Tree.NONE;
+				child = tree.getNextSibling(child)) {
+			sum += Math.exp((tree.getPotential(child) - highest) / t);
+		}
+		for(int child = tree.getFirstChild(node); child != Tree.NONE;
+				child = tree.getNextSibling(child)) {
+			tree.setProbability(child,
+					Math.exp((tree.getPotential(child) - highest) / t) / sum);
+		}
+	}
+
+	public int best(Tree tree) {
+		int bestChild = Tree.NONE;
+		double tmpQuality = -1;
+
+		//Check all children; of equal ones the first is taken.
+		for(int child = tree.getFirstChild(Tree.ROOT); child != Tree.NONE;
+				child = tree.getNextSibling(child)) {
+			if(tree.getValue(child) > tmpQuality) {
+				tmpQuality = tree.getValue(child);
+				bestChild = child;
+			}
+		}
+		return bestChild;
+	}
+
+	public boolean usesPotentials() {
+		return true;
+	}
+}
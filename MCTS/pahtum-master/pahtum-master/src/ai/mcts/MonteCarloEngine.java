@@ -0,0 +1,197 @@
+package ai.mcts;
+
+import util.FastRandom;
+import util.Tuple;
+import core.Board;
+import core.Engine;
+import core.Playout;
+
+/**
+ * Monte-Carlo Tree Search for Pahtum, shared by all Monte-Carlo engines. An
+ * engine is a configuration of it:
+ * <ul>
+ * <li> the scope of the tree: how many of the best moves by the heuristic
+ * (Charles_2's) a node of the engine, and one of its opponent, is expanded
+ * with, 0 for all moves;
+ * <li> the tree policy, which walks down the fully expanded part of the tree
+ * and picks the move to play (UcbPolicy, BoltzmannPolicy);
+ * <li> the default policy, the roll-out played from a new node (Playout).
+ * </ul>
+ * The tree is kept in primitive arrays (Tree) and the roll-outs are played on
+ * one scratch board.
+ * @author kg687
+ *
+ */
+public class MonteCarloEngine implements Engine {
+	private Board board;			//Board which holds starting position.
+	private boolean white;			//Select (True) if MC plays white.
+	private int allMovesNumber;		//Number of moves to make till the game
+	//reaches a terminate state (ends) -- counts from the very beginning of the
+	//game. Basically is's 49 minus number of black holes.
+	private int ownBest;			//Scope of MC's nodes, 0 for all moves.
+	private int otherBest;			//Scope of the opponent's nodes.
+	private boolean bestFirst;		//Expand the best move first rather than
+	//one at random.
+	private TreePolicy treePolicy;
+	private Playout playout;
+	private Tree tree;
+	private int[] fields = new int[Board.SIZE * Board.SIZE];	//Scratch.
+
+	/**
+	 * Create engine's object and initialize main parameters.
+	 * @param board Board with an initial state.
+	 * @param color Monte-Carlo's color.
+	 * @param moveNumber Current move number.
+	 * @param allMovesNumber Number of moves till the game reaches a terminate
+	 * state (ends), from the beginning of the game.
+	 * @param ownBest Number of best moves to expand MC's nodes with, 0 for
+	 * all.
+	 * @param otherBest The same for the opponent's nodes.
+	 * @param treePolicy Tree policy.
+	 * @param playout Default policy.
+	 */
+	public MonteCarloEngine(Board board, String color, int moveNumber,
+			int allMovesNumber, int ownBest, int otherBest,
+			TreePolicy treePolicy, Playout playout) {
+		this.board = board;
+		this.white = color.equals("w");
+		this.allMovesNumber = allMovesNumber;
+		this.ownBest = ownBest;
+		this.otherBest = otherBest;
+		this.treePolicy = treePolicy;
+		this.playout = playout;
+		this.tree = new Tree(this.white, moveNumber, 0);
+	}
+
+	/**
+	 * Expand nodes with their best move first, in order of the heuristic,
+	 * rather than with a random one. Only matters for nodes of limited scope.
+	 * @param bestFirst Select (True) for best first.
+	 */
+	protected void setBestFirst(boolean bestFirst) {
+		this.bestFirst = bestFirst;
+	}
+
+	/**
+	 * Run the search.
+	 * @param n Number of roll-outs.
+	 * @return Best move as a tuple with coordinates, null if there is no
+	 * move.
+	 */
+	public Tuple<Integer, Integer> uct(int n) {
+		tree.ensureCapacity(tree.getSize() + n);
+
+		//One scratch board for all roll-outs, reset before each of them.
+		Board tempBoard = this.board.duplicate();
+		while(n > 0) {
+			tempBoard.copyFrom(this.board);
+
+			//Walk down the tree and add a new node.
+			int node = treePolicy(tempBoard);
+
+			//Play the game out from the new node.
+			int delta = playout.play(tempBoard,
+					tree.isWhite(node) ? "w" : "b",
+					this.allMovesNumber - tree.getMoveNumber(node));
+
+			//Propagate the result of the game upwards to the root.
+			backUp(node, delta);
+			--n;
+		}
+		int best = treePolicy.best(tree);
+		return best == Tree.NONE ? null : Board.getField(tree.getMove(best));
+	}
+
+	/**
+	 * Run tree policy. It finds the most urgent node and expands it.
+	 * @param board A board on which moves of the traversed nodes are played.
+	 * @return A new node, or a terminal one.
+	 */
+	private int treePolicy(Board board) {
+		int node = Tree.ROOT;
+		//While node is not a terminal state apply Tree Policy.
+		while(tree.getMoveNumber(node) < this.allMovesNumber) {
+			if(!tree.hasUntriedSet(node)) {
+				setUntried(node, board);
+			}
+			if(tree.getUntriedCount(node) != 0) {
+				return expand(node, board);
+			}
+			if(tree.getFirstChild(node) == Tree.NONE) {
+				//No move at all: node is a terminal state.
+				return node;
+			}
+			int child = treePolicy.select(tree, node);
+			board.putStone(tree.getMove(child), tree.isWhite(node));
+			node = child;
+		}
+		return node;
+	}
+
+	/**
+	 * List the moves a node is to be expanded with.
+	 * @param node Node; board holds its position.
+	 * @param board Board.
+	 */
+	private void setUntried(int node, Board board) {
+		boolean white = tree.isWhite(node);
+		int best = white == this.white ? ownBest : otherBest;
+		int count;
+		if(best > 0) {
+			count = board.getBestFields(white ? "w" : "b", best, fields);
+		} else {
+			count = 0;
+			for(long empty = board.getEmpty(); empty != 0;
+					empty &= empty - 1) {
+				fields[count++] = Long.numberOfTrailingZeros(empty);
+			}
+		}
+		tree.setUntried(node, fields, count);
+	}
+
+	/**
+	 * Add a child for one of the untried moves of a node, and make the move.
+	 * @param node Node; board holds its position.
+	 * @param board Board.
+	 * @return New node.
+	 */
+	private int expand(int node, Board board) {
+		int i = bestFirst ? 0 : FastRandom.current().nextInt(
+				tree.getUntriedCount(node));
+		int field = tree.takeUntried(node, i);
+		boolean white = tree.isWhite(node);
+		int potential = 0;
+		if(treePolicy.usesPotentials()) {
+			potential = board.getHeuristicValue(field / Board.SIZE,
+					field % Board.SIZE, white ? "w" : "b");
+		}
+		board.putStone(field, white);
+		return tree.addChild(node, field, potential);
+	}
+
+	/**
+	 * Propagate the outcome of the simulation from the leaf (given node) up to
+	 * the root.
+	 * @param node A node from which a default policy kicked off (a new leaf).
+	 * @param delta The outcome of the simulation (see Playout).
+	 */
+	private void backUp(int node, int delta) {
+		//Value for the side which made the move into the node: the one not
+		//to move.
+		double value;
+		if(delta == Playout.DRAW) {
+			value = .5;
+		} else if(delta == (tree.isWhite(node) ? Playout.WHITE
+				: Playout.BLACK)) {
+			value = 0;
+		} else {
+			value = 1;
+		}
+
+		//Reverse the value (0 -> 1 or 1 -> 0) on every level up.
+		for(; node != Tree.NONE; node = tree.getParent(node)) {
+			tree.update(node, value);
+			value = 1 - value;
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package ai.mcts;
+
+import java.util.Arrays;
+
+/**
+ * Game tree of MonteCarloEngine, kept in primitive arrays instead of node
+ * objects: a node is an index, and each of its properties is an entry in one
+ * of the arrays. Children of a node are chained in the order they were added
+ * (firstChild, nextSibling). The untried moves of all nodes share one pool;
+ * those of a node are the range [untriedStart, untriedEnd) of it.
+ * @author kg687
+ *
+ */
+public class Tree {
+	public static final int ROOT = 0;
+	public static final int NONE = -1;
+
+	private int size;				//Number of nodes.
+	private int[] move;				//Field of the move leading to the node.
+	private int[] moveNumber;		//Number of moves made in the game.
+	private boolean[] white;		//Select (True) if white is to move.
+	private int[] parent;
+	private int[] firstChild, lastChild, nextSibling;
+	private int[] visit;
+	private double[] value;			//Sum of the outcomes, for the side which
+	//made the move.
+	private int[] potential;		//Potential of the move (Charles_2's
+	//heuristic) before it was made.
+	private double[] probability;	//Probability of selection, set by
+	//BoltzmannPolicy; NaN until then.
+
+	private int[] untriedStart, untriedEnd;		//NONE until generated.
+	private int[] untried;
+	private int untriedSize;
+
+	/**
+	 * Create a tree with a root.
+	 * @param white Select (True) if white is to move at the root.
+	 * @param moveNumber Number of moves made at the root.
+	 * @param capacity Expected number of nodes.
+	 */
+	public Tree(boolean white, int moveNumber, int capacity) {
+		capacity = Math.max(capacity, 16);
+		this.move = new int[capacity];
+		this.moveNumber = new int[capacity];
+		this.white = new boolean[capacity];
+		this.parent = new int[capacity];
+		this.firstChild = new int[capacity];
+		this.lastChild = new int[capacity];
+		this.nextSibling = new int[capacity];
+		this.visit = new int[capacity];
+		this.value = new double[capacity];
+		this.potential = new int[capacity];
+		this.probability = new double[capacity];
+		this.untriedStart = new int[capacity];
+		this.untriedEnd = new int[capacity];
+		this.untried = new int[capacity * 8];
+		add(NONE, NONE, white, moveNumber, 0);
+	}
+
+	/**
+	 * Make room for given number of nodes.
+	 * @param capacity Number of nodes.
+	 */
+	public void ensureCapacity(int capacity) {
+		if(capacity <= move.length) {
+			return;
+		}
+		move = Arrays.copyOf(move, capacity);
+		moveNumber = Arrays.copyOf(moveNumber, capacity);
+		white = Arrays.copyOf(white, capacity);
+		parent = Arrays.copyOf(parent, capacity);
+		firstChild = Arrays.copyOf(firstChild, capacity);
+		lastChild = Arrays.copyOf(lastChild, capacity);
+		nextSibling = Arrays.copyOf(nextSibling, capacity);
+		visit = Arrays.copyOf(visit, capacity);
+		value = Arrays.copyOf(value, capacity);
+		potential = Arrays.copyOf(potential, capacity);
+		probability = Arrays.copyOf(probability, capacity);
+		untriedStart = Arrays.copyOf(untriedStart, capacity);
+		untriedEnd = Arrays.copyOf(untriedEnd, capacity);
+	}
+
+	/**
+	 * Add a child to a node.
+	 * @param parent Parent, NONE for the root.
+	 * @param move Field of the move.
+	 * @param potential Potential of the move.
+	 * @return The new node.
+	 */
+	public int addChild(int parent, int move, int potential) {
+		return add(parent, move, !white[parent], moveNumber[parent] + 1,
+				potential);
+	}
+
+	private int add(int parent, int move, boolean white, int moveNumber,
+			int potential) {
+		if(size == this.move.length) {
+			ensureCapacity(size * 2);
+		}
+		int node = size++;
+		this.move[node] = move;
+		this.moveNumber[node] = moveNumber;
+		this.white[node] = white;
+		this.parent[node] = parent;
+		this.firstChild[node] = NONE;
+		this.lastChild[node] = NONE;
+		this.nextSibling[node] = NONE;
+		this.visit[node] = 0;
+		this.value[node] = 0;
+		this.potential[node] = potential;
+		this.probability[node] = Double.NaN;
+		this.untriedStart[node] = NONE;
+		this.untriedEnd[node] = NONE;
+		if(parent != NONE) {
+			if(firstChild[parent] == NONE) {
+				firstChild[parent] = node;
+			} else {
+				nextSibling[lastChild[parent]] = node;
+			}
+			lastChild[parent] = node;
+		}
+		return node;
+	}
+
+	/**
+	 * Set the untried moves of a node.
+	 * @param node Node.
+	 * @param fields The moves.
+	 * @param count Number of moves in fields.
+	 */
+	public void setUntried(int node, int[] fields, int count) {
+		if(untriedSize + count > untried.length) {
+			untried = Arrays.copyOf(untried,
+					Math.max(untried.length * 2, untriedSize + count));
+		}
+		System.arraycopy(fields, 0, untried, untriedSize, count);
+		untriedStart[node] = untriedSize;
+		untriedEnd[node] = untriedSize + count;
+		untriedSize += count;
+	}
+
+	/**
+	 * @param node Node.
+	 * @return Select (True) if the untried moves have been set.
+	 */
+	public boolean hasUntriedSet(int node) {
+		return untriedStart[node] != NONE;
+	}
+
+	/**
+	 * @param node Node.
+	 * @return Number of untried moves left.
+	 */
+	public int getUntriedCount(int node) {
+		return untriedEnd[node] - untriedStart[node];
+	}
+
+	/**
+	 * Take an untried move off the list of a node.
+	 * @param node Node.
+	 * @param i Index among the untried moves left, from 0.
+	 * @return The move's field.
+	 */
+	public int takeUntried(int node, int i) {
+		//Swap the move to the front, and drop the front.
+		int start = untriedStart[node]++;
+		int field = untried[start + i];
+		untried[start + i] = untried[start];
+		return field;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getMove(int node) {
+		return move[node];
+	}
+
+	public int getMoveNumber(int node) {
+		return moveNumber[node];
+	}
+
+	public boolean isWhite(int node) {
+		return white[node];
+	}
+
+	public int getParent(int node) {
+		return parent[node];
+	}
+
+	public int getFirstChild(int node) {
+		return firstChild[node];
+	}
+
+	public int getNextSibling(int node) {
+		return nextSibling[node];
+	}
+
+	public int getVisit(int node) {
+		return visit[node];
+	}
+
+	public double getValue(int node) {
+		return value[node];
+	}
+
+	public int getPotential(int node) {
+		return potential[node];
+	}
+
+	public double getProbability(int node) {
+		return probability[node];
+	}
+
+	public void setProbability(int node, double probability) {
+		this.probability[node] = probability;
+	}
+
+	/**
+	 * Count a visit of a node with given outcome.
+	 * @param node Node.
+	 * @param value Outcome, for the side which made the move.
+	 */
+	public void update(int node, double value) {
+		this.value[node] += value;
+		++visit[node];
+	}
+}
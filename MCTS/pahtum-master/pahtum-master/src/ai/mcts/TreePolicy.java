@@ -0,0 +1,31 @@
+package ai.mcts;
+
+/**
+ * How MonteCarloEngine walks down a fully expanded part of the tree, and 
+ * which move it plays in the end.
+ * @author kg687
+ *
+ */
+public interface TreePolicy {
+
+	/**
+	 * Select a child of a fully expanded node to descend to.
+	 * @param tree The tree.
+	 * @param node Node with at least one child.
+	 * @return Selected child.
+	 */
+	int select(Tree tree, int node);
+
+	/**
+	 * Select the child of the root to play when the search is over.
+	 * @param tree The tree.
+	 * @return Best child of the root, Tree.NONE if there is none.
+	 */
+	int best(Tree tree);
+
+	/**
+	 * @return Select (True) if select reads the potentials of the moves, 
+	 * which are then stored in the tree.
+	 */
+	boolean usesPotentials();
+}
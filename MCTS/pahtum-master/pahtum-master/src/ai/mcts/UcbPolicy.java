@@ -0,0 +1,59 @@
+package ai.mcts;
+
+/**
+ * Upper confidence bound for trees (UCT): descend to the child with the 
+ * highest mean outcome plus c * sqrt(2 ln N / n), where N and n are the visits 
+ * of the node and the child; play the child with the highest mean outcome.
+ * @author kg687
+ *
+ */
+public class UcbPolicy implements TreePolicy {
+	private final double c;		//Constant that biases exploration.
+
+	/**
+	 * Create the policy with c = 1 / sqrt(2).
+	 */
+	public UcbPolicy() {
+		this(1 / Math.sqrt(2));
+	}
+
+	/**
+	 * Create the policy.
+	 * @param c Constant that biases exploration factor. When c=0  the most 
+	 * robust child is selected.
+	 */
+	public UcbPolicy(double c) {
+		this.c = c;
+	}
+
+	public int select(Tree tree, int node) {
+		return bestChild(tree, node, this.c);
+	}
+
+	public int best(Tree tree) {
+		return bestChild(tree, Tree.ROOT, 0);
+	}
+
+	private static int bestChild(Tree tree, int node, double c) {
+		int bestChild = Tree.NONE;
+		double tempScore = -1;
+		double logVisit = 2 * Math.log(tree.getVisit(node));
+
+		//Check all children; of equal ones the last is taken.
+		for(int child = tree.getFirstChild(node); child != Tree.NONE;
+				child = tree.getNextSibling(child)) {
+			double visit = tree.getVisit(child);
+			double score = tree.getValue(child) / visit
+					+ c * Math.sqrt(logVisit / visit);
+			if(score >= tempScore) {
+				bestChild = child;
+				tempScore = score;
+			}
+		}
+		return bestChild;
+	}
+
+	public boolean usesPotentials() {
+		return false;
+	}
+}
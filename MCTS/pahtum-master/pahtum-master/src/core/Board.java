@@ -1,9 +1,9 @@
 package core;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,49 +12,145 @@ import java.util.Random;
 import util.Tuple;
 
 /**
- * Board used in the game. Denotes current stage of the game with distribution 
- * of the pieces in respect to their color, as well as black holes.
+ * Board used in the game. Denotes current stage of the game with distribution
+ * of the pieces in respect to their color, as well as black holes.<p>
+ * The position is kept in three bitboards (white, black and black holes), one
+ * bit per field: field (x, y) is bit x * 7 + y. Copying a board copies three
+ * longs, and valid moves are the set bits of the empty mask. The line score
+ * of each color is kept up to date as stones are placed.<p>
+ * Potentials of empty fields (Charles_2's heuristic) are cached per color. A
+ * potential depends only on the row and the column of its field, so a move
+ * marks just those 13 fields stale, and only stale fields are recomputed the
+ * next time potentials are asked for.
  * @author kg687
  *
  */
 public class Board implements Serializable{
 
 	/**
-	 * 
+	 *
 	 */
 	private static final long serialVersionUID = 1L;
-	private String[][] board;
+
+	/**
+	 * Boards are serialized as the String[][] they used to hold, so the saved
+	 * board collections (*.sav) still load.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("board", String[][].class)
+	};
+
+	/**
+	 * Number of rows (and columns) of the board.
+	 */
+	public static final int SIZE = 7;
+
+	/**
+	 * Mask with a bit set for every field of the board.
+	 */
+	public static final long ALL_FIELDS = (1L << (SIZE * SIZE)) - 1;
+
+	//Points for a line of given length (index), for the heuristics:
+	//Charles_2's own table and the one used in the lists of moves.
+	private static final int[] ADJUSTMENT = {0, 2, 3, 10, 25, 56, 119, 0, 0};
+	private static final int[] LIST_ADJUSTMENT =
+		{0, 1, 3, 10, 25, 56, 119, 0, 0};
+
+	//Directions walked by the heuristics: (-,0), (0,-), (0,+), (+,0).
+	private static final int[] DX = {-1, 0, 0, 1};
+	private static final int[] DY = {0, -1, 1, 0};
+
+	//A potential is the sum of a part from the field's row and one from its
+	//column. The part from a line of 7 fields is looked up here, by the
+	//fields of the line coded 2 bits each (empty 0, own 1, enemy 2, black
+	//hole 3) times 7, plus the position of the field in the line.
+	private static final short[] LINE_POTENTIAL =
+		new short[(1 << (2 * SIZE)) * SIZE];
+	//Bit i of a 7-bit pattern moved to bit 2i.
+	private static final int[] SPREAD = new int[1 << SIZE];
+	static {
+		for(int pattern = 0; pattern < SPREAD.length; ++pattern) {
+			for(int i = 0; i < SIZE; ++i) {
+				if((pattern & (1 << i)) != 0) {
+					SPREAD[pattern] |= 1 << (2 * i);
+				}
+			}
+		}
+		int[] line = new int[SIZE];
+		for(int code = 0; code < (1 << (2 * SIZE)); ++code) {
+			for(int i = 0; i < SIZE; ++i) {
+				line[i] = (code >>> (2 * i)) & 3;
+			}
+			for(int position = 0; position < SIZE; ++position) {
+				LINE_POTENTIAL[code * SIZE + position] =
+					(short) linePotential(line, position);
+			}
+		}
+	}
+
+	//Row and column through each field: the fields whose potential changes
+	//when a stone is placed on it.
+	private static final long[] LINES = new long[SIZE * SIZE];
+	static {
+		for(int x = 0; x < SIZE; ++x) {
+			for(int y = 0; y < SIZE; ++y) {
+				for(int i = 0; i < SIZE; ++i) {
+					LINES[x * SIZE + y] |= bit(x, i) | bit(i, y);
+				}
+			}
+		}
+	}
+
+	//One immutable tuple per field, shared by all lists of moves.
+	private static final List<Tuple<Integer, Integer>> FIELDS =
+		new ArrayList<Tuple<Integer, Integer>>(SIZE * SIZE);
+	static {
+		for(int x = 0; x < SIZE; ++x) {
+			for(int y = 0; y < SIZE; ++y) {
+				FIELDS.add(new Tuple<Integer, Integer>(x, y));
+			}
+		}
+	}
+
+	private transient long white;
+	private transient long black;
+	private transient long holes;
+	private transient int whiteScore;
+	private transient int blackScore;
+
+	//Cached potentials for white and black to play, and the fields whose
+	//cached potential is out of date.
+	private transient int[] whitePotentials;
+	private transient int[] blackPotentials;
+	private transient long whiteStale;
+	private transient long blackStale;
 
 	/**
 	 * Initialize a new Board object.
-	 * @param state State, select (1) for standard settings. (2) and (3) used 
+	 * @param state State, select (1) for standard settings. (2) and (3) used
 	 * only for testing purpose.
-	 * @param random Select (True) if you want to allow program to select black 
-	 * holes at random, otherwise (False). The latter causes questions which aim 
+	 * @param random Select (True) if you want to allow program to select black
+	 * holes at random, otherwise (False). The latter causes questions which aim
 	 * to specify exact locations.
 	 * @param numberBlackHoles Number of black holes.
 	 */
 	public Board(int state, boolean random, int numberBlackHoles) {
+		this();
 		Random generator = new Random();
 		switch(state) {
 		case 1:
-			board = new String[7][7];
-			for(int x = 0; x < 7; ++x) {
-				for(int y = 0; y < 7; ++y) {
-					board[x][y] = "e";
-				}
-			}
 			if(random) {
 				while(numberBlackHoles > 0) {
 					int coordianteX = generator.nextInt(7);
 					int coordinateY = generator.nextInt(7);
-					if(board[coordianteX][coordinateY].equals("e")) {
-						board[coordianteX][coordinateY] = "x";
+					long bit = bit(coordianteX, coordinateY);
+					if((getEmpty() & bit) != 0) {
+						holes |= bit;
 						--numberBlackHoles;
 					}
 				}
 			}
-			break;	
+			break;
 		case 2:
 			String[][] asd = {
 					{"b", "w", "w", "b", "b", "b", "b"},
@@ -65,7 +161,7 @@ public class Board implements Serializable{
 					{"w", "e", "e", "e", "e", "e", "e"},
 					{"w", "e", "e", "e", "e", "e", "e"},
 			};
-			board = asd;
+			setState(asd);
 			break;
 		case 3:
 			String[][] qwe = {
@@ -77,7 +173,7 @@ public class Board implements Serializable{
 					{"b", "w", "b", "w", "b", "b", "w"},
 					{"w", "b", "w", "b", "b", "w", "b"},
 			};
-			board = qwe;
+			setState(qwe);
 			break;
 		}
 
@@ -87,57 +183,78 @@ public class Board implements Serializable{
 	 * Make move on given field with given color if the field is not occupied.
 	 * @param filed Destination field.
 	 * @param color Color of a piece to move.
-	 * @throws Exception Throws exception if the field is already occupied 
+	 * @throws Exception Throws exception if the field is already occupied
 	 * (or is a black hole).
 	 */
-	public void makeMove(Tuple<Integer, Integer> filed, String color) 
+	public void makeMove(Tuple<Integer, Integer> filed, String color)
 	throws Exception {
-		if(board[filed.getFirstElement()][filed.getSecondElement()].equals("e")) 
-		{
-			board[filed.getFirstElement()][filed.getSecondElement()] = color;
+		int x = filed.getFirstElement();
+		int y = filed.getSecondElement();
+		if(x < 0 || x >= SIZE || y < 0 || y >= SIZE) {
+			throw new ArrayIndexOutOfBoundsException("No field " + filed);
+		}
+		long bit = bit(x, y);
+		if((getEmpty() & bit) != 0) {
+			put(bit, color);
 		} else {
 			throw new Exception("Filed is occupied.");
 		}
 	}
 
+	/**
+	 * Board with no state, to be filled by copyFrom.
+	 */
+	private Board() {
+		whitePotentials = new int[SIZE * SIZE];
+		blackPotentials = new int[SIZE * SIZE];
+		whiteStale = ALL_FIELDS;
+		blackStale = ALL_FIELDS;
+	}
+
 	/**
 	 * Duplicate of the board (the same as Python's "deep copy").
 	 * @return Board's replica as a new object.
 	 */
 	public Board duplicate() {
-		Board replica = null;
-		try {
-			ByteArrayOutputStream bos = new ByteArrayOutputStream();
-			ObjectOutputStream oos = new ObjectOutputStream(bos);
-			oos.writeObject(this);
-			oos.flush();
-			oos.close();
-			bos.close();
-			byte [] byteData = bos.toByteArray();
-
-			ByteArrayInputStream bais = new ByteArrayInputStream(byteData);
-			replica = (Board) new ObjectInputStream(bais).readObject();
-		} catch(Exception e) { e.printStackTrace(); }
+		Board replica = new Board();
+		replica.copyFrom(this);
 		return replica;
 	}
 
+	/**
+	 * Overwrite this board with the position of another one, reusing this
+	 * object.
+	 * @param other Board to copy.
+	 */
+	public void copyFrom(Board other) {
+		white = other.white;
+		black = other.black;
+		holes = other.holes;
+		whiteScore = other.whiteScore;
+		blackScore = other.blackScore;
+		System.arraycopy(other.whitePotentials, 0, whitePotentials, 0,
+				whitePotentials.length);
+		System.arraycopy(other.blackPotentials, 0, blackPotentials, 0,
+				blackPotentials.length);
+		whiteStale = other.whiteStale;
+		blackStale = other.blackStale;
+	}
+
 	/**
 	 * Generate list of all valid moves for current position.
 	 * @return List of valid moves.
 	 */
 	public List<Tuple<Integer, Integer>> getListValidMoves() {
-		ArrayList<Tuple<Integer, Integer>> list = 
-			new ArrayList<Tuple<Integer, Integer>>();
-		for(int x = 0; x < 7; ++x) {
-			for(int y = 0; y < 7; ++y) {
-				if(board[x][y].equals("e")) {
-					list.add(new Tuple<Integer, Integer>(x, y));
-				}
-			}
+		long empty = getEmpty();
+		ArrayList<Tuple<Integer, Integer>> list =
+			new ArrayList<Tuple<Integer, Integer>>(Long.bitCount(empty));
+		while(empty != 0) {
+			list.add(FIELDS.get(Long.numberOfTrailingZeros(empty)));
+			empty &= empty - 1;
 		}
 		return list;
 	}
-	
+
 	/**
 	 * Get potential evaluation of given field provided by Charles_2 heuristic.
 	 * @param x Row.
@@ -146,740 +263,259 @@ public class Board implements Serializable{
 	 * @return Potential of the selected point if empty, -1 otherwise
 	 */
 	public int getHeuristicValue(int x, int y, String color) {
-		int index_x = x, index_y = y;
-		int potential = 0;
-		int distance = 7;
-		boolean case_1 = true, case_2 = true, case_3 = true, case_4 = true;
-		int horizontal_adjustment = 1, vertical_adjustment = 1;
-		// (-,0) direction. 
-		try {
-			while(board[index_x - 1][index_y].equals("e") || 
-					board[index_x - 1][index_y].equals(color)) {
-				if(board[index_x - 1][index_y].equals("e")) {
-					case_1 = false;
-					potential += distance;
-					--distance;
-				} else {
-					potential += distance + 2;
-					--distance;
-					if(case_1) {
-						++vertical_adjustment;
-					}
-				}
-				--index_x;
-			}
-		} catch(Exception e) { }
+		if(onBoard(x, y) && (getEmpty() & bit(x, y)) != 0
+				&& (color.equals("w") || color.equals("b"))) {
+			return getPotentials(color)[x * SIZE + y];
+		}
+		return potential(x, y, getMask(color), getEnemyMask(color),
+				ADJUSTMENT, false);
+	}
 
-		// (0,-) direction.
-		index_x = x;
-		index_y = y;
-		distance = 7;
-		try {
-			while(board[index_x][index_y - 1].equals("e") || 
-					board[index_x][index_y - 1].equals(color)) {
-				if(board[index_x][index_y - 1].equals("e")) {
-					case_2 = false;
-					potential += distance;
-					--distance;
-				} else {
-					potential += distance + 2;
-					--distance;
-					if(case_2) {
-						++horizontal_adjustment;
-					}
-				}
-				--index_y;
+	/**
+	 * Potentials (as getHeuristicValue) of all empty fields, by bit index,
+	 * brought up to date. Entries of occupied fields are meaningless. The
+	 * array belongs to the board: read it, don't keep it.
+	 * @param color "w" or "b".
+	 * @return
+	 */
+	private int[] getPotentials(String color) {
+		long empty = getEmpty();
+		if(color.equals("w")) {
+			long stale = whiteStale & empty;
+			if(stale != 0) {
+				refresh(whitePotentials, stale, white, black);
+				whiteStale &= ~stale;
 			}
-		} catch(Exception e) { }
+			return whitePotentials;
+		} else if(color.equals("b")) {
+			long stale = blackStale & empty;
+			if(stale != 0) {
+				refresh(blackPotentials, stale, black, white);
+				blackStale &= ~stale;
+			}
+			return blackPotentials;
+		}
+		int[] potentials = new int[SIZE * SIZE];
+		refresh(potentials, empty, getMask(color), getEnemyMask(color));
+		return potentials;
+	}
 
-		// (0,+) direction.
-		index_x = x;
-		index_y = y;
-		distance = 7;
-		try {
-			while(board[index_x][index_y + 1].equals("e") || 
-					board[index_x][index_y + 1].equals(color)) {
-				if(board[index_x][index_y + 1].equals("e")) {
-					case_3 = false;
+	private void refresh(int[] potentials, long fields, long own,
+			long enemy) {
+		long ownOrHole = own | holes;
+		long enemyOrHole = enemy | holes;
+		for(; fields != 0; fields &= fields - 1) {
+			int field = Long.numberOfTrailingZeros(fields);
+			int x = field / SIZE;
+			int y = field - x * SIZE;
+			int row = SPREAD[Scoring.row(ownOrHole, x)]
+					| (SPREAD[Scoring.row(enemyOrHole, x)] << 1);
+			int column = SPREAD[Scoring.column(ownOrHole, y)]
+					| (SPREAD[Scoring.column(enemyOrHole, y)] << 1);
+			potentials[field] = LINE_POTENTIAL[row * SIZE + y]
+					+ LINE_POTENTIAL[column * SIZE + x];
+		}
+	}
+
+	/**
+	 * The part of a potential (with Charles_2's table) that comes from one
+	 * line through the field: the walks both ways along it and the points for
+	 * the own and the enemy's stones in line with the field.
+	 * @param line Fields of the line: 0 empty, 1 own, 2 enemy, 3 black hole.
+	 * @param position Position of the field in the line.
+	 * @return
+	 */
+	private static int linePotential(int[] line, int position) {
+		int potential = 0;
+		int adjustment = 1, enemy_adjustment = 1;
+		for(int step = -1; step <= 1; step += 2) {
+			//Walk over empty and own fields.
+			int distance = 7;
+			boolean unbroken = true;
+			for(int i = position + step; i >= 0 && i < SIZE; i += step) {
+				if(line[i] == 0) {
+					unbroken = false;
 					potential += distance;
-					--distance;
-				} else {
+				} else if(line[i] == 1) {
 					potential += distance + 2;
-					--distance;
-					if(case_3) {
-						++horizontal_adjustment;
+					if(unbroken) {
+						++adjustment;
 					}
+				} else {
+					break;
 				}
-				++index_y;
+				--distance;
+			}
+			//Walk over the enemy's stones.
+			for(int i = position + step; i >= 0 && i < SIZE && line[i] == 2;
+					i += step) {
+				++enemy_adjustment;
 			}
-		} catch(Exception e) { }
+		}
+		return potential + ADJUSTMENT[adjustment]
+				+ ADJUSTMENT[enemy_adjustment];
+	}
 
-		// (+,0) direction.
-		index_x = x;
-		index_y = y;
-		distance = 7;
-		try {
-			while(board[index_x + 1][index_y].equals("e") || 
-					board[index_x + 1][index_y].equals(color)) {
-				if(board[index_x + 1][index_y].equals("e")) {
-					case_4 = false;
+	/**
+	 * Potential of a field: every empty or own field in line with it scores
+	 * by its distance (own ones 2 more), and the unbroken lines of own and of
+	 * enemy stones through it score by length.
+	 * @param x Row.
+	 * @param y Column.
+	 * @param own Stones of the color to play.
+	 * @param enemy Stones of the opponent.
+	 * @param adjustment Points for a line, by its length.
+	 * @param openEnds Select (True) to count an enemy line one longer when it
+	 * can still be extended at both ends.
+	 * @return Potential of the field.
+	 */
+	private int potential(int x, int y, long own, long enemy,
+			int[] adjustment, boolean openEnds) {
+		long empty = getEmpty();
+		int potential = 0;
+		int horizontal_adjustment = 1, vertical_adjustment = 1;
+		int enemy_adjustment_x = 1, enemy_adjustment_y = 1;
+		int open_x = 0, open_y = 0;
+		for(int d = 0; d < 4; ++d) {
+			//Walk over empty and own fields.
+			int index_x = x + DX[d], index_y = y + DY[d];
+			int distance = 7;
+			boolean unbroken = true;
+			int line = 0;
+			while(onBoard(index_x, index_y)) {
+				long bit = bit(index_x, index_y);
+				if((empty & bit) != 0) {
+					unbroken = false;
 					potential += distance;
-					--distance;
-				} else {
+				} else if((own & bit) != 0) {
 					potential += distance + 2;
-					--distance;
-					if(case_4) {
-						++vertical_adjustment;
+					if(unbroken) {
+						++line;
 					}
+				} else {
+					break;
 				}
-				++index_x;
-			}
-		} catch(Exception e) { }
-
-		// Update of adjustments.
-		switch(horizontal_adjustment) {
-		case 6:
-			potential += 119; break;
-		case 5:
-			potential += 56; break;
-		case 4:
-			potential += 25; break;
-		case 3:
-			potential += 10; break;
-		case 2:
-			potential += 3; break;
-		case 1:
-			potential += 2; break;
-		default:
-			break;	
-		}
-
-		switch(vertical_adjustment) {
-		case 6:
-			potential += 119; break;
-		case 5:
-			potential += 56; break;
-		case 4:
-			potential += 25; break;
-		case 3:
-			potential += 10; break;
-		case 2:
-			potential += 3; break;
-		case 1:
-			potential += 2; break;
-		default: 
-			break;
-		}
-
-		// Adjustment for the opponent.
-		String enemyColor;
-		if(color.equals("w")) {
-			enemyColor = "b";
-		} else {
-			enemyColor = "w";
-		}
-
-		index_x = x;
-		index_y = y;
-
-		int enemy_adjustment_x = 1, enemy_adjustment_y = 1;
-		try {
-			while(board[index_x - 1][index_y].equals(enemyColor)) {
-				++enemy_adjustment_x;
-				--index_x;
-			}
-		} catch(Exception e) { }
-
-		index_x = x;
-		index_y = y;
-		try {
-			while(board[index_x + 1][index_y].equals(enemyColor)) {
-				++enemy_adjustment_x;
-				++index_x;
+				--distance;
+				index_x += DX[d];
+				index_y += DY[d];
 			}
-		} catch(Exception e) { }
 
-		index_x = x;
-		index_y = y;
-		try {
-			while(board[index_x][index_y - 1].equals(enemyColor)) {
-				++enemy_adjustment_y;
-				--index_y;
+			//Walk over the enemy's stones.
+			index_x = x + DX[d];
+			index_y = y + DY[d];
+			int enemyLine = 0;
+			while(onBoard(index_x, index_y)
+					&& (enemy & bit(index_x, index_y)) != 0) {
+				++enemyLine;
+				index_x += DX[d];
+				index_y += DY[d];
 			}
-		} catch(Exception e) { }
-
-		index_x = x;
-		index_y = y;
-		try {
-			while(board[index_x][index_y + 1].equals(enemyColor)) {
-				++enemy_adjustment_y;
-				++index_y;
+			boolean open = openEnds && onBoard(index_x, index_y)
+					&& (empty & bit(index_x, index_y)) != 0;
+
+			if(DX[d] != 0) {
+				vertical_adjustment += line;
+				enemy_adjustment_x += enemyLine;
+				if(open) {
+					++open_x;
+				}
+			} else {
+				horizontal_adjustment += line;
+				enemy_adjustment_y += enemyLine;
+				if(open) {
+					++open_y;
+				}
 			}
-		} catch(Exception e) { }
-
-		switch(enemy_adjustment_x) {
-		case 6:
-			potential += 119; break;
-		case 5:
-			potential += 56; break;
-		case 4:
-			potential += 25; break;
-		case 3:
-			potential += 10; break;
-		case 2:
-			potential += 3; break;
-		case 1:
-			potential += 2; break;
-		default: 
-			break;
 		}
-
-		switch (enemy_adjustment_y) {
-		case 6:
-			potential += 119; break;
-		case 5:
-			potential += 56; break;
-		case 4:
-			potential += 25; break;
-		case 3:
-			potential += 10; break;
-		case 2:
-			potential += 3; break;
-		case 1:
-			potential += 2; break;
-		default: 
-			break;
+		if(open_x == 2) {
+			++enemy_adjustment_x;
 		}
-
-		// End of enemy's adjustment.
-		return potential;
-
+		if(open_y == 2) {
+			++enemy_adjustment_y;
+		}
+		return potential + adjustment[horizontal_adjustment]
+				+ adjustment[vertical_adjustment]
+				+ adjustment[enemy_adjustment_x]
+				+ adjustment[enemy_adjustment_y];
 	}
 
 	/**
-	 * Generate list of X best move in respect to Charles_2's heuristic . X is 
+	 * Generate list of X best move in respect to Charles_2's heuristic . X is
 	 * specified as a parameter (MAGIC_NUMBER).
 	 * @param color Color of which next move will be made.
 	 * @param MAGIC_NUMBER Number of moves to select.
 	 * @return
 	 */
-	public List<Tuple<Integer, Integer>> heuristic_bestX_moves(String color, 
+	public List<Tuple<Integer, Integer>> heuristic_bestX_moves(String color,
 			int MAGIC_NUMBER) {
-		List<Tuple<Integer, Integer>> list = 
-			new ArrayList<Tuple<Integer,Integer>>();
+		int[] fields = new int[MAGIC_NUMBER];
+		int count = getBestFields(color, MAGIC_NUMBER, fields);
+		ArrayList<Tuple<Integer, Integer>> finalList =
+			new ArrayList<Tuple<Integer, Integer>>(count);
+		for(int i = 0; i < count; ++i) {
+			finalList.add(FIELDS.get(fields[i]));
+		}
+		return finalList;
 
-		List<Tuple<Integer, Tuple<Integer, Integer>>> ratingList = 
-			new ArrayList<Tuple<Integer,Tuple<Integer,Integer>>>();
+	}
 
+	/**
+	 * The fields heuristic_bestX_moves would list, as bit indices, without
+	 * allocating: the count empty fields of the highest potential, highest
+	 * first and of equal ones the first in board order; or all empty fields
+	 * in board order, if fewer than count are left.
+	 * @param color Color of which next move will be made.
+	 * @param count Number of moves to select.
+	 * @param fields Receives the selection; at least count long.
+	 * @return Number of fields selected.
+	 */
+	public int getBestFields(String color, int count, int[] fields) {
+		if(count <= 0) {
+			return 0;
+		}
 		// Check if board is almost full.
-		int countE = 0;
-		for(int x = 0; x < 7; ++x) {
-			for(int y = 0; y < 7; ++y) {
-				if(board[x][y].equals("e")) {
-					++countE;
-				}
+		long empty = getEmpty();
+		if(Long.bitCount(empty) < count) {
+			int size = 0;
+			for(; empty != 0; empty &= empty - 1) {
+				fields[size++] = Long.numberOfTrailingZeros(empty);
 			}
-		}
-		if(countE < MAGIC_NUMBER) {
-			return getListValidMoves();
+			return size;
 		}
 
-
-		//  There are quite few empty fields left.
-		for(int x = 0; x < 7; ++x) {
-			for(int y = 0; y < 7; ++y) {
-				if(board[x][y].equals("e")) {
-					// Empty field => calculate potential.
-					int index_x = x, index_y = y;
-					int potential = 0;
-					int distance = 7;
-					boolean case_1 = true, case_2 = true, case_3 = true, 
-					case_4 = true;
-					int horizontal_adjustment = 1, vertical_adjustment = 1;
-					// (-,0) direction. 
-					try {
-						while(board[index_x - 1][index_y].equals("e") || 
-								board[index_x - 1][index_y].equals(color)) {
-							if(board[index_x - 1][index_y].equals("e")) {
-								case_1 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_1) {
-									++vertical_adjustment;
-								}
-							}
-							--index_x;
-						}
-					} catch(Exception e) { }
-
-					// (0,-) direction.
-					index_x = x;
-					index_y = y;
-					distance = 7;
-					try {
-						while(board[index_x][index_y - 1].equals("e") || 
-								board[index_x][index_y - 1].equals(color)) {
-							if(board[index_x][index_y - 1].equals("e")) {
-								case_2 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_2) {
-									++horizontal_adjustment;
-								}
-							}
-							--index_y;
-						}
-					} catch(Exception e) { }
-
-					// (0,+) direction.
-					index_x = x;
-					index_y = y;
-					distance = 7;
-					try {
-						while(board[index_x][index_y + 1].equals("e") || 
-								board[index_x][index_y + 1].equals(color)) {
-							if(board[index_x][index_y + 1].equals("e")) {
-								case_3 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_3) {
-									++horizontal_adjustment;
-								}
-							}
-							++index_y;
-						}
-					} catch(Exception e) { }
-
-					// (+,0) direction.
-					index_x = x;
-					index_y = y;
-					distance = 7;
-					try {
-						while(board[index_x + 1][index_y].equals("e") || 
-								board[index_x + 1][index_y].equals(color)) {
-							if(board[index_x + 1][index_y].equals("e")) {
-								case_4 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_4) {
-									++vertical_adjustment;
-								}
-							}
-							++index_x;
-						}
-					} catch(Exception e) { }
-
-					// Update of adjustments.
-					switch(horizontal_adjustment) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 2; break;
-					default:
-						break;	
-					}
-
-					switch(vertical_adjustment) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 2; break;
-					default: 
-						break;
-					}
-
-					// Adjustment for the opponent.
-					String enemyColor;
-					if(color.equals("w")) {
-						enemyColor = "b";
-					} else {
-						enemyColor = "w";
-					}
-
-					index_x = x;
-					index_y = y;
-
-					int enemy_adjustment_x = 1, enemy_adjustment_y = 1;
-					try {
-						while(board[index_x - 1][index_y].equals(enemyColor)) {
-							++enemy_adjustment_x;
-							--index_x;
-						}
-					} catch(Exception e) { }
-
-					index_x = x;
-					index_y = y;
-					try {
-						while(board[index_x + 1][index_y].equals(enemyColor)) {
-							++enemy_adjustment_x;
-							++index_x;
-						}
-					} catch(Exception e) { }
-
-					index_x = x;
-					index_y = y;
-					try {
-						while(board[index_x][index_y - 1].equals(enemyColor)) {
-							++enemy_adjustment_y;
-							--index_y;
-						}
-					} catch(Exception e) { }
-
-					index_x = x;
-					index_y = y;
-					try {
-						while(board[index_x][index_y + 1].equals(enemyColor)) {
-							++enemy_adjustment_y;
-							++index_y;
-						}
-					} catch(Exception e) { }
-
-					switch(enemy_adjustment_x) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 2; break;
-					default: 
-						break;
-					}
-
-					switch (enemy_adjustment_y) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 2; break;
-					default: 
-						break;
-					}
-
-					// End of enemy's adjustment.
-
-					// Add to rating list.
-					ratingList.add(new Tuple<Integer, Tuple<Integer, Integer>>(
-							potential, new Tuple<Integer, Integer>(x, y)));
-
-
-				} // end of if. check if field is empty.
-			} // end of for (y)
-		} // end of for (x)
-
-		//Compose final selection based on calculated potentials for each field.
-		ArrayList<Tuple<Integer, Integer>> finalList = 
-			new ArrayList<Tuple<Integer, Integer>>();
-		for(int i = 0; i < MAGIC_NUMBER; ++i) {
-			double tempScore = -1;
-			Tuple<Integer, Tuple<Integer, Integer>> best = null;
-			for(Tuple<Integer, Tuple<Integer, Integer>> item : ratingList) {
-				if(item.getFirstElement() > tempScore) { 
-					best = item;
-					tempScore = item.getFirstElement();
-				}
+		//  There are quite few empty fields left: keep the best count so far,
+		//  sorted, and insert every field that beats the last of them.
+		int[] potentials = getPotentials(color);
+		int size = 0;
+		for(; empty != 0; empty &= empty - 1) {
+			int field = Long.numberOfTrailingZeros(empty);
+			int potential = potentials[field];
+			int i;
+			if(size < count) {
+				i = size++;
+			} else if(potential > potentials[fields[count - 1]]) {
+				i = count - 1;
+			} else {
+				continue;
+			}
+			while(i > 0 && potentials[fields[i - 1]] < potential) {
+				fields[i] = fields[i - 1];
+				--i;
 			}
-			finalList.add(best.getSecondElement());
-			ratingList.remove(best);
+			fields[i] = field;
 		}
-
-		return finalList;
-
+		return size;
 	}
 
 
 	/**
-	 * Calculate potential for all fields and return list of all of them. Used 
+	 * Calculate potential for all fields and return list of all of them. Used
 	 * by Charles agent.
 	 * @param color Your color.
 	 * @return
 	 */
 	public ArrayList<Tuple<Integer, Integer>> heuristic_adjustment_listMoves(String color) {
-		ArrayList<Tuple<Integer, Integer>> list = new ArrayList<Tuple<Integer,Integer>>();
-
-		int tmpPotential = -1;
-		for(int x = 0; x < 7; ++x) {
-			for(int y = 0; y < 7; ++y) {
-				if(board[x][y].equals("e")) {
-					// Empty field => calculate potential.
-					int index_x = x, index_y = y;
-					int potential = 0;
-					int distance = 7;
-					boolean case_1 = true, case_2 = true, case_3 = true, case_4 = true;
-					int horizontal_adjustment = 1, vertical_adjustment = 1;
-					// (-,0) direction. 
-					try {
-						while(board[index_x - 1][index_y].equals("e") || board[index_x - 1][index_y].equals(color)) {
-							if(board[index_x - 1][index_y].equals("e")) {
-								case_1 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_1) {
-									++vertical_adjustment;
-								}
-							}
-							--index_x;
-						}
-					} catch(Exception e) { }
-
-					// (0,-) direction.
-					index_x = x;
-					index_y = y;
-					distance = 7;
-					try {
-						while(board[index_x][index_y - 1].equals("e") || board[index_x][index_y - 1].equals(color)) {
-							if(board[index_x][index_y - 1].equals("e")) {
-								case_2 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_2) {
-									++horizontal_adjustment;
-								}
-							}
-							--index_y;
-						}
-					} catch(Exception e) { }
-
-					// (0,+) direction.
-					index_x = x;
-					index_y = y;
-					distance = 7;
-					try {
-						while(board[index_x][index_y + 1].equals("e") || board[index_x][index_y + 1].equals(color)) {
-							if(board[index_x][index_y + 1].equals("e")) {
-								case_3 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_3) {
-									++horizontal_adjustment;
-								}
-							}
-							++index_y;
-						}
-					} catch(Exception e) { }
-
-					// (+,0) direction.
-					index_x = x;
-					index_y = y;
-					distance = 7;
-					try {
-						while(board[index_x + 1][index_y].equals("e") || board[index_x + 1][index_y].equals(color)) {
-							if(board[index_x + 1][index_y].equals("e")) {
-								case_4 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_4) {
-									++vertical_adjustment;
-								}
-							}
-							++index_x;
-						}
-					} catch(Exception e) { }
-
-					// Update of adjustments.
-					switch(horizontal_adjustment) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 1; break;
-					default:
-						break;	
-					}
-
-					switch(vertical_adjustment) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 1; break;
-					default: 
-						break;
-					}
-
-					// Adjustment for the opponent.
-					String enemyColor;
-					if(color.equals("w")) {
-						enemyColor = "b";
-					} else {
-						enemyColor = "w";
-					}
-
-					//					boolean extra_x_minus = false, extra_x_plus = false,
-					//					extra_y_minus = false, extra_y_plus = false;
-
-					index_x = x;
-					index_y = y;
-
-					int enemy_adjustment_x = 1, enemy_adjustment_y = 1;
-					try {
-						while(board[index_x - 1][index_y].equals(enemyColor)) {
-							++enemy_adjustment_x;
-							--index_x;
-						}
-						//						if(board[index_x - 1][index_y].equals("e")) {
-						//							extra_x_minus = true;
-						//						}
-					} catch(Exception e) { }
-
-					index_x = x;
-					index_y = y;
-					try {
-						while(board[index_x + 1][index_y].equals(enemyColor)) {
-							++enemy_adjustment_x;
-							++index_x;
-						}
-						//						if(board[index_x + 1][index_y].equals("e")) {
-						//							extra_x_plus = true;
-						//						}
-					} catch(Exception e) { }
-
-					index_x = x;
-					index_y = y;
-					try {
-						while(board[index_x][index_y - 1].equals(enemyColor)) {
-							++enemy_adjustment_y;
-							--index_y;
-						}
-						//						if(board[index_x][index_y - 1].equals("e")) {
-						//							extra_y_minus = true;
-						//						}
-					} catch(Exception e) { }
-
-					index_x = x;
-					index_y = y;
-					try {
-						while(board[index_x][index_y + 1].equals(enemyColor)) {
-							++enemy_adjustment_y;
-							++index_y;
-						}
-						//						if(board[index_x][index_y + 1].equals("e")) {
-						//							extra_y_plus = true;
-						//						}
-					} catch(Exception e) { }
-
-					//					if(extra_x_minus && extra_x_plus) {
-					//						++enemy_adjustment_x;
-					//					}
-					switch(enemy_adjustment_x) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 1; break;
-					default: 
-						break;
-					}
-
-					//					if(extra_y_minus && extra_y_plus) {
-					//						++enemy_adjustment_y;
-					//					}
-					switch (enemy_adjustment_y) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 1; break;
-					default: 
-						break;
-					}
-
-					// End of enemy's adjustment.
-
-					if(potential > tmpPotential) {
-						// New higher potential => dismiss all previous findings and add current.
-						tmpPotential = potential;
-						list.clear();
-						list.add(new Tuple<Integer, Integer>(x, y));
-					} else if(potential == tmpPotential) {
-						// Another field with the same (the highest) score => add.
-						list.add(new Tuple<Integer, Integer>(x, y));
-					}
-				} // end of if.
-			} // end of for (y)
-		} // end of for (x)
-
-		return list;
+		return bestMoves(color, false);
 	}
 
 	/**
@@ -889,260 +525,207 @@ public class Board implements Serializable{
 	 * @return
 	 */
 	public ArrayList<Tuple<Integer, Integer>> heuristic_listMoves(String color) {
-		ArrayList<Tuple<Integer, Integer>> list = new ArrayList<Tuple<Integer,Integer>>();
+		return bestMoves(color, true);
+	}
 
+	/**
+	 * All empty fields of the highest potential, in board order.
+	 * @param color Your color.
+	 * @param openEnds Whether enemy lines open at both ends count one longer.
+	 * @return
+	 */
+	private ArrayList<Tuple<Integer, Integer>> bestMoves(String color,
+			boolean openEnds) {
+		ArrayList<Tuple<Integer, Integer>> list = new ArrayList<Tuple<Integer,Integer>>();
+		long own = getMask(color);
+		long enemy = getEnemyMask(color);
 		int tmpPotential = -1;
-		for(int x = 0; x < 7; ++x) {
-			for(int y = 0; y < 7; ++y) {
-				if(board[x][y].equals("e")) {
-					// Empty field => calculate potential.
-					int index_x = x, index_y = y;
-					int potential = 0;
-					int distance = 7;
-					boolean case_1 = true, case_2 = true, case_3 = true, case_4 = true;
-					int horizontal_adjustment = 1, vertical_adjustment = 1;
-					// (-,0) direction. 
-					try {
-						while(board[index_x - 1][index_y].equals("e") || board[index_x - 1][index_y].equals(color)) {
-							if(board[index_x - 1][index_y].equals("e")) {
-								case_1 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_1) {
-									++vertical_adjustment;
-								}
-							}
-							--index_x;
-						}
-					} catch(Exception e) { }
-
-					// (0,-) direction.
-					index_x = x;
-					index_y = y;
-					distance = 7;
-					try {
-						while(board[index_x][index_y - 1].equals("e") || board[index_x][index_y - 1].equals(color)) {
-							if(board[index_x][index_y - 1].equals("e")) {
-								case_2 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_2) {
-									++horizontal_adjustment;
-								}
-							}
-							--index_y;
-						}
-					} catch(Exception e) { }
-
-					// (0,+) direction.
-					index_x = x;
-					index_y = y;
-					distance = 7;
-					try {
-						while(board[index_x][index_y + 1].equals("e") || board[index_x][index_y + 1].equals(color)) {
-							if(board[index_x][index_y + 1].equals("e")) {
-								case_3 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_3) {
-									++horizontal_adjustment;
-								}
-							}
-							++index_y;
-						}
-					} catch(Exception e) { }
+		for(long empty = getEmpty(); empty != 0; empty &= empty - 1) {
+			int field = Long.numberOfTrailingZeros(empty);
+			int potential = potential(field / SIZE, field % SIZE, own, enemy,
+					LIST_ADJUSTMENT, openEnds);
+			if(potential > tmpPotential) {
+				// New higher potential => dismiss all previous findings and add current.
+				tmpPotential = potential;
+				list.clear();
+				list.add(FIELDS.get(field));
+			} else if(potential == tmpPotential) {
+				// Another field with the same (the highest) score => add.
+				list.add(FIELDS.get(field));
+			}
+		}
+		return list;
+	}
 
-					// (+,0) direction.
-					index_x = x;
-					index_y = y;
-					distance = 7;
-					try {
-						while(board[index_x + 1][index_y].equals("e") || board[index_x + 1][index_y].equals(color)) {
-							if(board[index_x + 1][index_y].equals("e")) {
-								case_4 = false;
-								potential += distance;
-								--distance;
-							} else {
-								potential += distance + 2;
-								--distance;
-								if(case_4) {
-									++vertical_adjustment;
-								}
-							}
-							++index_x;
-						}
-					} catch(Exception e) { }
+	/**
+	 * @return Points for white's lines (see Scoring).
+	 */
+	public int getWhiteScore() {
+		return whiteScore;
+	}
 
-					// Update of adjustments.
-					switch(horizontal_adjustment) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 1; break;
-					default:
-						break;	
-					}
+	/**
+	 * @return Points for black's lines (see Scoring).
+	 */
+	public int getBlackScore() {
+		return blackScore;
+	}
 
-					switch(vertical_adjustment) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 1; break;
-					default: 
-						break;
-					}
+	/**
+	 * @return Fields taken by white stones.
+	 */
+	public long getWhite() {
+		return white;
+	}
 
-					// Adjustment for the opponent.
-					String enemyColor;
-					if(color.equals("w")) {
-						enemyColor = "b";
-					} else {
-						enemyColor = "w";
-					}
+	/**
+	 * @return Fields taken by black stones.
+	 */
+	public long getBlack() {
+		return black;
+	}
 
-					boolean extra_x_minus = false, extra_x_plus = false,
-					extra_y_minus = false, extra_y_plus = false;
+	/**
+	 * @return Black holes.
+	 */
+	public long getHoles() {
+		return holes;
+	}
 
-					index_x = x;
-					index_y = y;
+	/**
+	 * @return Fields on which a move can be made.
+	 */
+	public long getEmpty() {
+		return ~(white | black | holes) & ALL_FIELDS;
+	}
 
-					int enemy_adjustment_x = 1, enemy_adjustment_y = 1;
-					try {
-						while(board[index_x - 1][index_y].equals(enemyColor)) {
-							++enemy_adjustment_x;
-							--index_x;
-						}
-						if(board[index_x - 1][index_y].equals("e")) {
-							extra_x_minus = true;
-						}
-					} catch(Exception e) { }
+	/**
+	 * @param color "w", "b" or "x".
+	 * @return Fields of given color (black holes for "x").
+	 */
+	public long getMask(String color) {
+		if(color.equals("w")) {
+			return white;
+		} else if(color.equals("b")) {
+			return black;
+		} else if(color.equals("x")) {
+			return holes;
+		}
+		return 0;
+	}
 
-					index_x = x;
-					index_y = y;
-					try {
-						while(board[index_x + 1][index_y].equals(enemyColor)) {
-							++enemy_adjustment_x;
-							++index_x;
-						}
-						if(board[index_x + 1][index_y].equals("e")) {
-							extra_x_plus = true;
-						}
-					} catch(Exception e) { }
+	private long getEnemyMask(String color) {
+		return color.equals("w") ? black : white;
+	}
 
-					index_x = x;
-					index_y = y;
-					try {
-						while(board[index_x][index_y - 1].equals(enemyColor)) {
-							++enemy_adjustment_y;
-							--index_y;
-						}
-						if(board[index_x][index_y - 1].equals("e")) {
-							extra_y_minus = true;
-						}
-					} catch(Exception e) { }
+	/**
+	 * @param field Bit index of a field.
+	 * @return The field as (row, column).
+	 */
+	public static Tuple<Integer, Integer> getField(int field) {
+		return FIELDS.get(field);
+	}
 
-					index_x = x;
-					index_y = y;
-					try {
-						while(board[index_x][index_y + 1].equals(enemyColor)) {
-							++enemy_adjustment_y;
-							++index_y;
-						}
-						if(board[index_x][index_y + 1].equals("e")) {
-							extra_y_plus = true;
-						}
-					} catch(Exception e) { }
+	private static long bit(int x, int y) {
+		return 1L << (x * SIZE + y);
+	}
 
-					if(extra_x_minus && extra_x_plus) {
-						++enemy_adjustment_x;
-					}
-					switch(enemy_adjustment_x) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 1; break;
-					default: 
-						break;
-					}
+	private static boolean onBoard(int x, int y) {
+		return x >= 0 && x < SIZE && y >= 0 && y < SIZE;
+	}
 
-					if(extra_y_minus && extra_y_plus) {
-						++enemy_adjustment_y;
-					}
-					switch (enemy_adjustment_y) {
-					case 6:
-						potential += 119; break;
-					case 5:
-						potential += 56; break;
-					case 4:
-						potential += 25; break;
-					case 3:
-						potential += 10; break;
-					case 2:
-						potential += 3; break;
-					case 1:
-						potential += 1; break;
-					default: 
-						break;
-					}
+	/**
+	 * Put a stone on an empty field without the checks of makeMove, for 
+	 * roll-outs that only ever draw empty fields.
+	 * @param field Bit index of an empty field.
+	 * @param white Select (True) for a white stone, (False) for a black one.
+	 */
+	public void putStone(int field, boolean white) {
+		long touched = LINES[field];
+		whiteStale |= touched;
+		blackStale |= touched;
+		if(white) {
+			whiteScore += Scoring.delta(this.white, field);
+			this.white |= 1L << field;
+		} else {
+			blackScore += Scoring.delta(black, field);
+			black |= 1L << field;
+		}
+	}
 
-					// End of enemy's adjustment.
+	private void put(long bit, String color) throws Exception {
+		if(color.equals("w")) {
+			putStone(Long.numberOfTrailingZeros(bit), true);
+		} else if(color.equals("b")) {
+			putStone(Long.numberOfTrailingZeros(bit), false);
+		} else if(color.equals("x")) {
+			long touched = LINES[Long.numberOfTrailingZeros(bit)];
+			whiteStale |= touched;
+			blackStale |= touched;
+			holes |= bit;
+		} else if(!color.equals("e")) {
+			throw new Exception("Unknown color " + color);
+		}
+	}
 
-					if(potential > tmpPotential) {
-						// New higher potential => dismiss all previous findings and add current.
-						tmpPotential = potential;
-						list.clear();
-						list.add(new Tuple<Integer, Integer>(x, y));
-					} else if(potential == tmpPotential) {
-						// Another field with the same (the highest) score => add.
-						list.add(new Tuple<Integer, Integer>(x, y));
-					}
-				} // end of if.
-			} // end of for (y)
-		} // end of for (x)
-		//		for(Tuple item : list) {
-		//			System.out.println(item.toString());
-		////			System.console().readLine();
-		//		}
-		return list;
+	/**
+	 * Copy of the position as rows of "e" (empty), "w", "b" and "x" (black
+	 * hole). Changing it does not change the board.
+	 * @return
+	 */
+	public String[][] getState() {
+		String[][] board = new String[SIZE][SIZE];
+		for(int x = 0; x < SIZE; ++x) {
+			for(int y = 0; y < SIZE; ++y) {
+				long bit = bit(x, y);
+				if((white & bit) != 0) {
+					board[x][y] = "w";
+				} else if((black & bit) != 0) {
+					board[x][y] = "b";
+				} else if((holes & bit) != 0) {
+					board[x][y] = "x";
+				} else {
+					board[x][y] = "e";
+				}
+			}
+		}
+		return board;
 	}
 
+	private void setState(String[][] board) {
+		if(whitePotentials == null) {
+			//Deserialized: transient fields are not initialized.
+			whitePotentials = new int[SIZE * SIZE];
+			blackPotentials = new int[SIZE * SIZE];
+		}
+		whiteStale = ALL_FIELDS;
+		blackStale = ALL_FIELDS;
+		white = 0;
+		black = 0;
+		holes = 0;
+		whiteScore = 0;
+		blackScore = 0;
+		for(int x = 0; x < SIZE; ++x) {
+			for(int y = 0; y < SIZE; ++y) {
+				try {
+					put(bit(x, y), board[x][y]);
+				} catch(Exception e) {
+					throw new IllegalArgumentException(e.getMessage());
+				}
+			}
+		}
+	}
 
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("board", getState());
+		out.writeFields();
+	}
 
-	public String[][] getState() {
-		return board;
+	private void readObject(ObjectInputStream in)
+	throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		setState((String[][]) fields.get("board", null));
 	}
 
 }
@@ -0,0 +1,169 @@
+package core;
+
+import util.FastRandom;
+
+/**
+ * Roll-out (default policy) shared by the Monte-Carlo engines. It plays on
+ * the scratch board it is given and allocates nothing: the empty fields are
+ * kept in an int array, a move drawn from it is swap-removed (the last field
+ * takes its place), and the random numbers come from the thread's FastRandom.
+ * <p> Each side draws either from all empty fields or, if a number of best
+ * fields is set for it, from that many best fields by the heuristic (see
+ * Board.getBestFields). The draw is uniform, or with a temperature T, by 
+ * Boltzmann's distribution: a field of potential p is drawn with probability 
+ * proportional to exp(p / T).
+ * @author kg687
+ *
+ */
+public class Playout {
+	public static final int DRAW = 0;
+	public static final int WHITE = 1;
+	public static final int BLACK = 2;
+
+	private final int whiteBest;	//Number of best fields to draw white's
+	//moves from, 0 for all.
+	private final int blackBest;	//The same for black.
+	private final double temperature;	//Boltzmann's T, 0 for uniform draws.
+
+	private final int[] empty = new int[Board.SIZE * Board.SIZE];
+	//Position of each field in empty.
+	private final int[] index = new int[Board.SIZE * Board.SIZE];
+	//Receives the best fields.
+	private final int[] best = new int[Board.SIZE * Board.SIZE];
+	//Boltzmann's weights of the best fields.
+	private final double[] weights = new double[Board.SIZE * Board.SIZE];
+
+	/**
+	 * Create a roll-out for an engine.
+	 * @param color Engine's color.
+	 * @param ownBest Number of best fields to draw the engine's moves from, 0
+	 * for all empty fields.
+	 * @param otherBest The same for the opponent's moves.
+	 */
+	public Playout(String color, int ownBest, int otherBest) {
+		this(color, ownBest, otherBest, 0);
+	}
+
+	/**
+	 * Create a roll-out for an engine which draws moves by Boltzmann's 
+	 * distribution.
+	 * @param color Engine's color.
+	 * @param ownBest Number of best fields to draw the engine's moves from, 0
+	 * for all empty fields.
+	 * @param otherBest The same for the opponent's moves.
+	 * @param temperature Boltzmann's T; 0 draws uniformly.
+	 */
+	public Playout(String color, int ownBest, int otherBest, 
+			double temperature) {
+		this.temperature = temperature;
+		if(color.equals("w")) {
+			this.whiteBest = ownBest;
+			this.blackBest = otherBest;
+		} else {
+			this.whiteBest = otherBest;
+			this.blackBest = ownBest;
+		}
+	}
+
+	/**
+	 * Play given number of moves on the board and score it.
+	 * @param board Scratch board; it is played on.
+	 * @param color Color to move first.
+	 * @param moves Number of moves to play, at most the number of empty
+	 * fields.
+	 * @return WHITE, BLACK or DRAW.
+	 */
+	public int play(Board board, String color, int moves) {
+		FastRandom generator = FastRandom.current();
+		int size = 0;
+		for(long fields = board.getEmpty(); fields != 0;
+				fields &= fields - 1) {
+			int field = Long.numberOfTrailingZeros(fields);
+			index[field] = size;
+			empty[size++] = field;
+		}
+
+		boolean white = color.equals("w");
+		for(; moves > 0; --moves) {
+			int bestCount = white ? whiteBest : blackBest;
+			int i;
+			if(temperature > 0) {
+				String side = white ? "w" : "b";
+				int count = board.getBestFields(side, 
+						bestCount > 0 ? bestCount : size, best);
+				i = index[best[boltzmann(board, side, count, generator)]];
+			} else if(bestCount > 0) {
+				int count = board.getBestFields(white ? "w" : "b", bestCount,
+						best);
+				i = index[best[generator.nextInt(count)]];
+			} else {
+				i = generator.nextInt(size);
+			}
+			int field = empty[i];
+			//Swap-remove: the last field takes the place of the drawn one.
+			int last = empty[--size];
+			empty[i] = last;
+			index[last] = i;
+			board.putStone(field, white);
+			white = !white;
+		}
+		return outcome(board);
+	}
+
+	/**
+	 * Draw one of the best fields by Boltzmann's distribution.
+	 * @param board Board of the roll-out.
+	 * @param side Color to move.
+	 * @param count Number of best fields (in best, highest first).
+	 * @param generator Random numbers.
+	 * @return Index in best.
+	 */
+	private int boltzmann(Board board, String side, int count, 
+			FastRandom generator) {
+		//The highest potential is subtracted to keep exp in range; it 
+		//cancels out.
+		int highest = Integer.MIN_VALUE;
+		for(int i = 0; i < count; ++i) {
+			weights[i] = potential(board, best[i], side);
+			highest = Math.max(highest, (int) weights[i]);
+		}
+		double sum = 0;
+		for(int i = 0; i < count; ++i) {
+			sum += Math.exp((weights[i] - highest) / temperature);
+			weights[i] = sum;
+		}
+		double r = generator.nextDouble() * sum;
+		for(int i = 0; i < count - 1; ++i) {
+			if(r < weights[i]) {
+				return i;
+			}
+		}
+		return count - 1;
+	}
+
+	private static int potential(Board board, int field, String side) {
+		return board.getHeuristicValue(field / Board.SIZE, field % Board.SIZE,
+				side);
+	}
+
+	/**
+	 * @param board A board.
+	 * @return Which side leads: WHITE, BLACK or DRAW.
+	 */
+	public static int outcome(Board board) {
+		int scoreWhite = board.getWhiteScore();
+		int scoreBlack = board.getBlackScore();
+		if(scoreWhite == scoreBlack) {
+			return DRAW;
+		}
+		return scoreWhite > scoreBlack ? WHITE : BLACK;
+	}
+
+	/**
+	 * @param color "w" or "b".
+	 * @return WHITE or BLACK.
+	 */
+	public static int side(String color) {
+		return color.equals("w") ? WHITE : BLACK;
+	}
+}
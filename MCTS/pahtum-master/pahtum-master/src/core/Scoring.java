@@ -0,0 +1,96 @@
+package core;
+
+/**
+ * Line scores of Pahtum from lookup tables. Every row and column of 7 fields
+ * is read from a Board mask as a 7-bit pattern, and the points of a pattern 
+ * (3, 10, 25, 56 and 119 for its lines of 3 to 7 stones) are precomputed for 
+ * all 128 of them. The score of a color is 14 lookups; placing one stone 
+ * changes it by the difference of 4.
+ * @author kg687
+ *
+ */
+public class Scoring {
+
+	//Points for a line of given length (index).
+	private static final int[] LINE_SCORE = {0, 0, 0, 3, 10, 25, 56, 119};
+
+	//Bits of column 0 in a Board mask.
+	private static final long COLUMN = 0x40810204081L;
+
+	//Multiplying the bits of column 0 by this moves field (x, 0) to bit
+	//42 + x; no two partial products meet, so nothing carries.
+	private static final long GATHER = (1L << 42) | (1L << 36) | (1L << 30) 
+			| (1L << 24) | (1L << 18) | (1L << 12) | (1L << 6);
+
+	private static final int[] PATTERN_SCORE = new int[1 << Board.SIZE];
+	static {
+		for(int pattern = 0; pattern < PATTERN_SCORE.length; ++pattern) {
+			int score = 0, line = 0;
+			for(int i = 0; i < Board.SIZE; ++i) {
+				if((pattern & (1 << i)) != 0) {
+					++line;
+				} else {
+					score += LINE_SCORE[line];
+					line = 0;
+				}
+			}
+			PATTERN_SCORE[pattern] = score + LINE_SCORE[line];
+		}
+	}
+
+	/**
+	 * @param stones Fields of one color, as a Board mask.
+	 * @param x Row.
+	 * @return Row x as a 7-bit pattern, column 0 lowest.
+	 */
+	public static int row(long stones, int x) {
+		return (int) (stones >>> (x * Board.SIZE)) & 0x7F;
+	}
+
+	/**
+	 * @param stones Fields of one color, as a Board mask.
+	 * @param y Column.
+	 * @return Column y as a 7-bit pattern, row 0 lowest.
+	 */
+	public static int column(long stones, int y) {
+		return (int) ((((stones >>> y) & COLUMN) * GATHER) >>> 42) & 0x7F;
+	}
+
+	/**
+	 * @param pattern A row or column, as 7 bits.
+	 * @return Points for its lines.
+	 */
+	public static int patternScore(int pattern) {
+		return PATTERN_SCORE[pattern];
+	}
+
+	/**
+	 * Points for the horizontal and vertical lines of 3 or more stones.
+	 * @param stones Fields of one color, as a Board mask.
+	 * @return
+	 */
+	public static int score(long stones) {
+		int score = 0;
+		for(int i = 0; i < Board.SIZE; ++i) {
+			score += PATTERN_SCORE[row(stones, i)] 
+			        + PATTERN_SCORE[column(stones, i)];
+		}
+		return score;
+	}
+
+	/**
+	 * Change of score(stones) when a stone is placed on an empty field.
+	 * @param stones Fields of the color to play, without the new stone.
+	 * @param field Bit index (x * 7 + y) of the new stone.
+	 * @return
+	 */
+	public static int delta(long stones, int field) {
+		int x = field / Board.SIZE;
+		int y = field - x * Board.SIZE;
+		int row = row(stones, x);
+		int column = column(stones, y);
+		return PATTERN_SCORE[row | (1 << y)] - PATTERN_SCORE[row] 
+				+ PATTERN_SCORE[column | (1 << x)] - PATTERN_SCORE[column];
+	}
+
+}
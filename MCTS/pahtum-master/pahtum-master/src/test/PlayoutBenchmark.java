@@ -0,0 +1,124 @@
+package test;
+
+import java.util.List;
+import java.util.Random;
+
+import util.Tuple;
+
+import core.Board;
+import core.Playout;
+import core.Rules;
+
+/**
+ * Measures how many roll-outs per second the board can sustain, the way the 
+ * Monte-Carlo engines play them: from a fresh copy of the position, moves are 
+ * drawn from the list of valid moves (or, for one side, from the best 5 by the 
+ * heuristic) until the board is full, and the result is scored; then the 
+ * same through the allocation-free Playout the engines use.
+ * Run with an optional number of seconds per measurement (default 3).
+ * @author kg687
+ *
+ */
+public class PlayoutBenchmark {
+
+	private static final int BOARDS = 50;
+	private static final int BLACK_HOLES = 3;
+
+	public static void main(String[] args) throws Exception {
+		long millis = 1000L * (args.length > 0 ? Integer.parseInt(args[0]) : 3);
+
+		//Positions to play from; a fixed seed for the moves keeps runs 
+		//comparable.
+		Board[] boards = new Board[BOARDS];
+		for(int i = 0; i < BOARDS; ++i) {
+			boards[i] = new Board(1, true, BLACK_HOLES);
+		}
+
+		for(int round = 0; round < 2; ++round) {
+			//The first round only warms up the JIT.
+			report("random", round, playouts(boards, false, millis), millis);
+			report("heuristic", round, playouts(boards, true, millis), millis);
+			report("kernel random", round, 
+					kernelPlayouts(boards, 0, millis), millis);
+			report("kernel heuristic", round, 
+					kernelPlayouts(boards, 5, millis), millis);
+		}
+	}
+
+	private static void report(String name, int round, long playouts, 
+			long millis) {
+		if(round > 0) {
+			System.out.println(name + " roll-outs/s: " 
+					+ (playouts * 1000 / millis));
+		}
+	}
+
+	/**
+	 * Play roll-outs until the time is up.
+	 * @param boards Initial positions, used in turn.
+	 * @param heuristic Select (True) to draw white's moves from the best 5.
+	 * @param millis Time to play for.
+	 * @return Number of roll-outs played.
+	 */
+	private static long playouts(Board[] boards, boolean heuristic, 
+			long millis) throws Exception {
+		Random generator = new Random(42);
+		Board board = boards[0].duplicate();
+		long playouts = 0;
+		int draws = 0;
+		long end = System.currentTimeMillis() + millis;
+		while(System.currentTimeMillis() < end) {
+			board.copyFrom(boards[(int) (playouts % BOARDS)]);
+			String color = "w";
+			int moves = 49 - BLACK_HOLES;
+			for(int move = 0; move < moves; ++move) {
+				List<Tuple<Integer, Integer>> listValidMoves;
+				if(heuristic && color.equals("w")) {
+					listValidMoves = board.heuristic_bestX_moves(color, 5);
+				} else {
+					listValidMoves = board.getListValidMoves();
+				}
+				board.makeMove(listValidMoves.get(generator.nextInt(
+						listValidMoves.size())), color);
+				color = color.equals("w") ? "b" : "w";
+			}
+			if(Rules.calculateScore(board).equals("0")) {
+				++draws;
+			}
+			++playouts;
+		}
+		//Keep the result live so the scoring is not optimised away.
+		if(draws < 0) {
+			System.out.println(draws);
+		}
+		return playouts;
+	}
+
+	/**
+	 * Play roll-outs through the engines' Playout until the time is up.
+	 * @param boards Initial positions, used in turn.
+	 * @param whiteBest Number of best fields to draw white's moves from, 0 
+	 * for all.
+	 * @param millis Time to play for.
+	 * @return Number of roll-outs played.
+	 */
+	private static long kernelPlayouts(Board[] boards, int whiteBest, 
+			long millis) {
+		Playout playout = new Playout("w", whiteBest, 0);
+		Board board = boards[0].duplicate();
+		long playouts = 0;
+		int draws = 0;
+		long end = System.currentTimeMillis() + millis;
+		while(System.currentTimeMillis() < end) {
+			board.copyFrom(boards[(int) (playouts % BOARDS)]);
+			if(playout.play(board, "w", 49 - BLACK_HOLES) == Playout.DRAW) {
+				++draws;
+			}
+			++playouts;
+		}
+		if(draws < 0) {
+			System.out.println(draws);
+		}
+		return playouts;
+	}
+}
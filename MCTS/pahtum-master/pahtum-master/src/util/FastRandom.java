@@ -0,0 +1,77 @@
+package util;
+
+/**
+ * Small, fast random number generator for roll-outs (xorshift64*). Unlike
+ * java.util.Random it is not synchronised and is cheap to create; each thread
+ * gets its own through current().
+ * @author kg687
+ *
+ */
+public class FastRandom {
+
+	private static final ThreadLocal<FastRandom> CURRENT =
+		new ThreadLocal<FastRandom>() {
+			@Override
+			protected FastRandom initialValue() {
+				return new FastRandom(System.nanoTime()
+						^ Thread.currentThread().getId() * 0x9E3779B97F4A7C15L);
+			}
+		};
+
+	private long state;
+
+	/**
+	 * Create a generator.
+	 * @param seed Any value; the same seed gives the same numbers.
+	 */
+	public FastRandom(long seed) {
+		setSeed(seed);
+	}
+
+	/**
+	 * @return Generator of the calling thread.
+	 */
+	public static FastRandom current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Restart the sequence.
+	 * @param seed Any value; the same seed gives the same numbers.
+	 */
+	public void setSeed(long seed) {
+		//Mix the seed (SplitMix64 finaliser), the state must not be 0.
+		long z = seed + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z ^= z >>> 31;
+		state = z == 0 ? 0x9E3779B97F4A7C15L : z;
+	}
+
+	/**
+	 * @return Next 64 random bits.
+	 */
+	public long nextLong() {
+		state ^= state >>> 12;
+		state ^= state << 25;
+		state ^= state >>> 27;
+		return state * 0x2545F4914F6CDD1DL;
+	}
+
+	/**
+	 * Random number in [0, n), by taking the high bits of a product (no
+	 * division).
+	 * @param n Bound, positive.
+	 * @return Random number in [0, n).
+	 */
+	public int nextInt(int n) {
+		return (int) (((nextLong() >>> 32) * n) >>> 32);
+	}
+
+	/**
+	 * @return Random number in [0, 1).
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+}